@@ -0,0 +1,165 @@
+/**
+ * Watches device and network conditions for the duration of a call and
+ * reports them back to the video view.
+ */
+package com.twiliorn.library;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.twilio.video.LocalAudioTrackStats;
+import com.twilio.video.LocalTrackStats;
+import com.twilio.video.LocalVideoTrackStats;
+import com.twilio.video.StatsListener;
+import com.twilio.video.StatsReport;
+
+import java.util.List;
+
+class CallConditionsMonitor {
+    interface Listener {
+        /*
+         * Called on every polling interval, ahead of the stats sample.
+         */
+        void onPoll();
+
+        void onBatteryChanged(int levelPercent, boolean charging);
+
+        void onSendBitrateChanged(int audioKbps, int videoKbps);
+
+        /*
+         * Follows onSendBitrateChanged for each sample. Loss is the share of packets sent since the
+         * previous sample that the far end reported lost; round trip time is the worst of the
+         * local tracks'.
+         */
+        void onLinkQuality(int lossPercent, int roundTripTimeMs);
+    }
+
+    private static final long STATS_INTERVAL_MS = 5000;
+
+    private final Context context;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private RoomSession room;
+    private boolean running;
+    private long lastSampleTime = -1;
+    private long lastAudioBytesSent;
+    private long lastVideoBytesSent;
+    private long lastPacketsSent;
+    private long lastPacketsLost;
+
+    private final BroadcastReceiver batteryReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            if (level < 0 || scale <= 0) {
+                return;
+            }
+            int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+            boolean charging = status == BatteryManager.BATTERY_STATUS_CHARGING
+                    || status == BatteryManager.BATTERY_STATUS_FULL;
+            listener.onBatteryChanged(level * 100 / scale, charging);
+        }
+    };
+
+    private final Runnable pollStats = new Runnable() {
+        @Override
+        public void run() {
+            if (!running || room == null) {
+                return;
+            }
+            listener.onPoll();
+            room.getStats(new StatsListener() {
+                @Override
+                public void onStats(List<StatsReport> statsReports) {
+                    onStatsSample(statsReports);
+                }
+            });
+            handler.postDelayed(this, STATS_INTERVAL_MS);
+        }
+    };
+
+    CallConditionsMonitor(Context context, Listener listener) {
+        this.context = context;
+        this.listener = listener;
+    }
+
+    void start(RoomSession room) {
+        this.room = room;
+        if (running) {
+            return;
+        }
+        running = true;
+        lastSampleTime = -1;
+        // ACTION_BATTERY_CHANGED is sticky, so registering also delivers the current level.
+        context.registerReceiver(batteryReceiver, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        handler.postDelayed(pollStats, STATS_INTERVAL_MS);
+    }
+
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        room = null;
+        handler.removeCallbacks(pollStats);
+        context.unregisterReceiver(batteryReceiver);
+    }
+
+    private void onStatsSample(List<StatsReport> statsReports) {
+        long audioBytesSent = 0;
+        long videoBytesSent = 0;
+        long packetsSent = 0;
+        long packetsLost = 0;
+        long roundTripTime = 0;
+        for (StatsReport report : statsReports) {
+            for (LocalAudioTrackStats stats : report.getLocalAudioTrackStats()) {
+                audioBytesSent += stats.bytesSent;
+            }
+            for (LocalVideoTrackStats stats : report.getLocalVideoTrackStats()) {
+                videoBytesSent += stats.bytesSent;
+            }
+            for (LocalTrackStats stats : report.getLocalAudioTrackStats()) {
+                packetsSent += stats.packetsSent;
+                packetsLost += stats.packetsLost;
+                roundTripTime = Math.max(roundTripTime, stats.roundTripTime);
+            }
+            for (LocalTrackStats stats : report.getLocalVideoTrackStats()) {
+                packetsSent += stats.packetsSent;
+                packetsLost += stats.packetsLost;
+                roundTripTime = Math.max(roundTripTime, stats.roundTripTime);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (lastSampleTime >= 0 && now > lastSampleTime) {
+            long elapsed = now - lastSampleTime;
+            // Bytes per millisecond times eight is kilobits per second.
+            listener.onSendBitrateChanged(
+                    kbps(audioBytesSent, lastAudioBytesSent, elapsed),
+                    kbps(videoBytesSent, lastVideoBytesSent, elapsed));
+
+            long sent = packetsSent - lastPacketsSent;
+            long lost = packetsLost - lastPacketsLost;
+            int lossPercent = sent > 0 && lost > 0 ? (int) Math.min(lost * 100 / (sent + lost), 100) : 0;
+            listener.onLinkQuality(lossPercent, (int) Math.min(roundTripTime, Integer.MAX_VALUE));
+        }
+        lastAudioBytesSent = audioBytesSent;
+        lastVideoBytesSent = videoBytesSent;
+        lastPacketsSent = packetsSent;
+        lastPacketsLost = packetsLost;
+        lastSampleTime = now;
+    }
+
+    /*
+     * Counters restart when a track is republished, so a negative delta is reported as zero.
+     */
+    private static int kbps(long bytes, long lastBytes, long elapsedMs) {
+        return bytes >= lastBytes ? (int) ((bytes - lastBytes) * 8 / elapsedMs) : 0;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Picks the camera capture format that best matches the requested video
+ * constraints, so frames come out of the camera at a native size instead of
+ * being scaled in software.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.twilio.video.CameraCapturer;
+import com.twilio.video.VideoDimensions;
+import com.twilio.video.VideoFormat;
+import com.twilio.video.VideoPixelFormat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class CaptureFormatSelector {
+    private static final String TAG = "CaptureFormatSelector";
+    private static final String PREFERENCES = "com.twiliorn.library.CaptureFormats";
+    private static final String FINGERPRINT_KEY = "fingerprint";
+
+    private static final Map<String, VideoFormat> selected = new HashMap<>();
+
+    private CaptureFormatSelector() {
+    }
+
+    /*
+     * Returns the chosen format, or null if the camera reports no formats at all. Choices are
+     * remembered per camera and target in memory and in SharedPreferences, keyed to the build
+     * fingerprint so an OS update re-enumerates.
+     */
+    @Nullable
+    static synchronized VideoFormat select(Context context,
+                                           CameraCapturer cameraCapturer,
+                                           VideoDimensions target,
+                                           int fps) {
+        String key = cameraCapturer.getCameraSource().name()
+                + ":" + target.width + "x" + target.height + "@" + fps;
+        VideoFormat format = selected.get(key);
+        if (format != null) {
+            return format;
+        }
+
+        SharedPreferences preferences = preferences(context);
+        format = decode(preferences.getString(key, null));
+        if (format == null) {
+            format = bestMatch(cameraCapturer.getSupportedFormats(), target, fps);
+            if (format == null) {
+                return null;
+            }
+            preferences.edit().putString(key, encode(format)).apply();
+        }
+
+        Log.i(TAG, "Capture format for " + key + " is "
+                + format.dimensions.width + "x" + format.dimensions.height + "@" + format.framerate);
+        selected.put(key, format);
+        return format;
+    }
+
+    private static SharedPreferences preferences(Context context) {
+        SharedPreferences preferences = context.getApplicationContext()
+                .getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        if (!Build.FINGERPRINT.equals(preferences.getString(FINGERPRINT_KEY, null))) {
+            preferences.edit().clear().putString(FINGERPRINT_KEY, Build.FINGERPRINT).apply();
+        }
+        return preferences;
+    }
+
+    @Nullable
+    static VideoFormat bestMatch(List<VideoFormat> formats, VideoDimensions target, int fps) {
+        VideoFormat best = null;
+        float bestScore = Float.MAX_VALUE;
+        float targetArea = target.width * target.height;
+        float targetAspect = target.width / (float) target.height;
+
+        for (VideoFormat format : formats) {
+            int width = format.dimensions.width;
+            int height = format.dimensions.height;
+            if (width == 0 || height == 0) {
+                continue;
+            }
+
+            /*
+             * Relative area difference, doubled for formats smaller than asked for since those
+             * have to be upscaled. Aspect ratio mismatch and a frame rate that cannot reach the
+             * requested fps weigh in after that.
+             */
+            float area = width * height;
+            float score = Math.abs(area - targetArea) / targetArea;
+            if (area < targetArea) {
+                score *= 2;
+            }
+            score += Math.abs(width / (float) height - targetAspect);
+            if (format.framerate < fps) {
+                score += 1;
+            }
+
+            if (score < bestScore) {
+                bestScore = score;
+                best = format;
+            }
+        }
+        return best;
+    }
+
+    private static String encode(VideoFormat format) {
+        return format.dimensions.width + "," + format.dimensions.height + "," + format.framerate
+                + "," + format.pixelFormat.name();
+    }
+
+    @Nullable
+    private static VideoFormat decode(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split(",");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            return new VideoFormat(
+                    new VideoDimensions(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])),
+                    Integer.parseInt(parts[2]),
+                    VideoPixelFormat.valueOf(parts[3]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
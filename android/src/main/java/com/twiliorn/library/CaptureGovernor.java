@@ -0,0 +1,173 @@
+/**
+ * Steps the local capture profile and the remote render rate down as the
+ * device heats up or runs low on battery, and back up as it recovers.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.os.PowerManager;
+import android.util.Log;
+
+import com.twilio.video.VideoDimensions;
+
+import java.lang.reflect.Method;
+
+class CaptureGovernor {
+    private static final VideoDimensions QCIF_VIDEO_DIMENSIONS = new VideoDimensions(176, 144);
+
+    /*
+     * Stage 0 is the unrestricted profile. Render fps of 0 leaves remote tiles uncapped.
+     */
+    private static final VideoDimensions[] CAPTURE_DIMENSIONS = {
+            VideoDimensions.CIF_VIDEO_DIMENSIONS,
+            VideoDimensions.CIF_VIDEO_DIMENSIONS,
+            QCIF_VIDEO_DIMENSIONS,
+            QCIF_VIDEO_DIMENSIONS
+    };
+    private static final int[] CAPTURE_FPS = {15, 10, 10, 5};
+    private static final int[] RENDER_FPS = {0, 15, 10, 5};
+    static final int MAX_STAGE = CAPTURE_FPS.length - 1;
+
+    /*
+     * Roughly what each stage's capture profile encodes to, in kbps. video-android 1.x cannot cap
+     * the encoder bitrate, so a video budget is met by capturing at the first stage that fits.
+     */
+    private static final int[] VIDEO_KBPS = {400, 300, 150, 80};
+
+    /*
+     * PowerManager thermal status values (API 29).
+     */
+    private static final int THERMAL_STATUS_LIGHT = 1;
+    private static final int THERMAL_STATUS_MODERATE = 2;
+    private static final int THERMAL_STATUS_SEVERE = 3;
+
+    /*
+     * Consecutive evaluations asking for a lower stage before stepping back up.
+     */
+    private static final int RECOVERY_EVALUATIONS = 3;
+
+    private static final String TAG = "CaptureGovernor";
+
+    private final PowerManager powerManager;
+    private Method getCurrentThermalStatus;
+    private int stage;
+    private int recoveryEvaluations;
+    private int batteryLevel = 100;
+    private boolean charging = true;
+    private int thermalStatus;
+
+    CaptureGovernor(Context context) {
+        powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        /*
+         * The library compiles against an SDK that predates thermal status, so it is looked up
+         * reflectively and simply stays at 0 on older devices.
+         */
+        try {
+            getCurrentThermalStatus = PowerManager.class.getMethod("getCurrentThermalStatus");
+        } catch (NoSuchMethodException e) {
+            getCurrentThermalStatus = null;
+        }
+    }
+
+    int getStage() {
+        return stage;
+    }
+
+    int getBatteryLevel() {
+        return batteryLevel;
+    }
+
+    boolean isCharging() {
+        return charging;
+    }
+
+    int getThermalStatus() {
+        return thermalStatus;
+    }
+
+    static VideoDimensions captureDimensions(int stage) {
+        return CAPTURE_DIMENSIONS[stage];
+    }
+
+    static int captureFps(int stage) {
+        return CAPTURE_FPS[stage];
+    }
+
+    static int renderFps(int stage) {
+        return RENDER_FPS[stage];
+    }
+
+    /*
+     * Least restrictive stage whose capture fits a video budget in kbps, 0 meaning unlimited.
+     * Budgets below the last stage still get the last stage.
+     */
+    static int stageForVideoBitrate(int kbps) {
+        if (kbps <= 0) {
+            return 0;
+        }
+        for (int stage = 0; stage < MAX_STAGE; stage++) {
+            if (kbps >= VIDEO_KBPS[stage]) {
+                return stage;
+            }
+        }
+        return MAX_STAGE;
+    }
+
+    void onBatteryChanged(int levelPercent, boolean charging) {
+        this.batteryLevel = levelPercent;
+        this.charging = charging;
+    }
+
+    void onThermalStatusChanged(int status) {
+        this.thermalStatus = status;
+    }
+
+    void pollThermalStatus() {
+        if (getCurrentThermalStatus == null) {
+            return;
+        }
+        try {
+            onThermalStatusChanged((Integer) getCurrentThermalStatus.invoke(powerManager));
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to read thermal status", e);
+            getCurrentThermalStatus = null;
+        }
+    }
+
+    /*
+     * Moves at most one stage per call and returns true if the stage changed. Stepping down is
+     * immediate; stepping up waits until conditions have held for a few evaluations.
+     */
+    boolean evaluate() {
+        int target = 0;
+        if (thermalStatus >= THERMAL_STATUS_SEVERE) {
+            target = 3;
+        } else if (thermalStatus == THERMAL_STATUS_MODERATE) {
+            target = 2;
+        } else if (thermalStatus == THERMAL_STATUS_LIGHT) {
+            target = 1;
+        }
+        if (!charging) {
+            if (batteryLevel <= 10) {
+                target = Math.max(target, 2);
+            } else if (batteryLevel <= 20) {
+                target = Math.max(target, 1);
+            }
+        }
+
+        if (target > stage) {
+            stage++;
+            recoveryEvaluations = 0;
+            return true;
+        }
+        if (target < stage && ++recoveryEvaluations >= RECOVERY_EVALUATIONS) {
+            stage--;
+            recoveryEvaluations = 0;
+            return true;
+        }
+        if (target >= stage) {
+            recoveryEvaluations = 0;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Probes the device's MediaCodec list once to find out which video codecs
+ * have hardware encoders and decoders.
+ */
+package com.twiliorn.library;
+
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+final class CodecCapabilities {
+    private static final String TAG = "CodecCapabilities";
+
+    static final String VP8 = "VP8";
+    static final String VP9 = "VP9";
+    static final String H264 = "H264";
+
+    private static final String[] CODECS = {VP8, VP9, H264};
+    private static final String[] MIME_TYPES = {"video/x-vnd.on2.vp8", "video/x-vnd.on2.vp9", "video/avc"};
+
+    /*
+     * Name prefixes of the software codecs shipped with the platform.
+     */
+    private static final String[] SOFTWARE_PREFIXES = {"OMX.google.", "c2.android.", "OMX.SEC.vp8.dec"};
+
+    private static CodecCapabilities instance;
+
+    private final boolean[] hardwareEncoder = new boolean[CODECS.length];
+    private final boolean[] hardwareDecoder = new boolean[CODECS.length];
+    private final List<String> preferredOrder;
+
+    /*
+     * Enumerating codecs can take hundreds of milliseconds, so this must not be called on the UI
+     * thread or on the connect path.
+     */
+    @WorkerThread
+    static synchronized CodecCapabilities get() {
+        if (instance == null) {
+            instance = new CodecCapabilities();
+        }
+        return instance;
+    }
+
+    /*
+     * MediaCodecList instances and getCodecInfos() need API 21; minSdk is 16.
+     */
+    @SuppressWarnings("deprecation")
+    private CodecCapabilities() {
+        try {
+            int count = MediaCodecList.getCodecCount();
+            for (int i = 0; i < count; i++) {
+                MediaCodecInfo info = MediaCodecList.getCodecInfoAt(i);
+                if (isSoftware(info.getName())) {
+                    continue;
+                }
+                for (String type : info.getSupportedTypes()) {
+                    int codec = indexOfMimeType(type);
+                    if (codec < 0) {
+                        continue;
+                    }
+                    if (info.isEncoder()) {
+                        hardwareEncoder[codec] = true;
+                    } else {
+                        hardwareDecoder[codec] = true;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Some devices throw while enumerating codecs; fall back to reporting no hardware support.
+            Log.w(TAG, "Failed to enumerate media codecs", e);
+        }
+
+        /*
+         * Codecs with a hardware encoder first, then VP8 as the codec every participant can
+         * decode, then the rest. Order within each group follows CODECS.
+         */
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < CODECS.length; i++) {
+            if (hardwareEncoder[i]) {
+                order.add(CODECS[i]);
+            }
+        }
+        for (String codec : CODECS) {
+            if (!order.contains(codec)) {
+                order.add(codec);
+            }
+        }
+        preferredOrder = Collections.unmodifiableList(order);
+        Log.i(TAG, "Preferred video codecs " + preferredOrder);
+    }
+
+    private static boolean isSoftware(String name) {
+        for (String prefix : SOFTWARE_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return name.contains(".sw.");
+    }
+
+    private static int indexOfMimeType(String type) {
+        for (int i = 0; i < MIME_TYPES.length; i++) {
+            if (MIME_TYPES[i].equalsIgnoreCase(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    List<String> getPreferredVideoCodecs() {
+        return preferredOrder;
+    }
+
+    WritableMap toWritableMap() {
+        WritableMap codecs = EventPayloads.createMap();
+        for (int i = 0; i < CODECS.length; i++) {
+            WritableMap codec = EventPayloads.createMap();
+            codec.putBoolean("hardwareEncoder", hardwareEncoder[i]);
+            codec.putBoolean("hardwareDecoder", hardwareDecoder[i]);
+            codecs.putMap(CODECS[i], codec);
+        }
+
+        WritableArray order = EventPayloads.createArray();
+        for (String codec : preferredOrder) {
+            order.pushString(codec);
+        }
+
+        WritableMap result = EventPayloads.createMap();
+        result.putMap("videoCodecs", codecs);
+        result.putArray("preferredVideoCodecs", order);
+        return result;
+    }
+}
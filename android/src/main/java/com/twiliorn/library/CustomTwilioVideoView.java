@@ -16,6 +16,10 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.pm.PackageManager;
 import android.media.AudioManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.StringDef;
@@ -24,52 +28,62 @@ import android.view.View;
 
 import com.facebook.react.bridge.LifecycleEventListener;
 import com.facebook.react.bridge.WritableMap;
-import com.facebook.react.bridge.WritableNativeMap;
 import com.facebook.react.bridge.WritableArray;
-import com.facebook.react.bridge.WritableNativeArray;
 import com.facebook.react.uimanager.ThemedReactContext;
 import com.facebook.react.uimanager.events.RCTEventEmitter;
 
-import com.twilio.video.AudioTrack;
 import com.twilio.video.CameraCapturer;
-import com.twilio.video.ConnectOptions;
-import com.twilio.video.LocalParticipant;
 import com.twilio.video.LocalAudioTrack;
 import com.twilio.video.LocalVideoTrack;
-import com.twilio.video.Participant;
-import com.twilio.video.Room;
 import com.twilio.video.RoomState;
 import com.twilio.video.TwilioException;
-import com.twilio.video.Video;
 import com.twilio.video.VideoRenderer;
-import com.twilio.video.VideoTrack;
 import com.twilio.video.VideoView;
 import com.twilio.video.VideoConstraints;
 import com.twilio.video.VideoDimensions;
+import com.twilio.video.VideoFormat;
+import com.twilio.video.VideoPixelFormat;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
 
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_AUDIO_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_AUDIO_ONLY_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_BITRATE_LIMITS_APPLIED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CAMERA_SWITCHED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CAMERA_SWITCH_FAILED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CONNECTED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CONNECT_FAILURE;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DISCONNECTED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_HANDLES_ASSIGNED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_CONNECTED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_DISCONNECTED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_VIDEO_CHANGED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_ADDED_VIDEO_TRACK;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_REMOVED_VIDEO_TRACK;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_ENABLED_VIDEO_TRACK;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_DISABLED_VIDEO_TRACK;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PERFORMANCE_PROFILE_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PICTURE_IN_PICTURE_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_RECORDING_STOPPED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_RENDER_STATS;
 
 public class CustomTwilioVideoView extends View implements LifecycleEventListener {
     private static final String TAG = "CustomTwilioVideoView";
 
     @Retention(RetentionPolicy.SOURCE)
     @StringDef({Events.ON_CAMERA_SWITCHED,
+            Events.ON_CAMERA_SWITCH_FAILED,
             Events.ON_VIDEO_CHANGED,
             Events.ON_AUDIO_CHANGED,
             Events.ON_CONNECTED,
@@ -78,9 +92,19 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             Events.ON_PARTICIPANT_CONNECTED,
             Events.ON_PARTICIPANT_DISCONNECTED,
             Events.ON_PARTICIPANT_ADDED_VIDEO_TRACK,
-            Events.ON_PARTICIPANT_REMOVED_VIDEO_TRACK})
+            Events.ON_PARTICIPANT_REMOVED_VIDEO_TRACK,
+            Events.ON_AUDIO_ONLY_CHANGED,
+            Events.ON_BITRATE_LIMITS_APPLIED,
+            Events.ON_RECORDING_STOPPED,
+            Events.ON_PERFORMANCE_PROFILE_CHANGED,
+            Events.ON_RENDER_STATS,
+            Events.ON_PICTURE_IN_PICTURE_CHANGED,
+            Events.ON_PARTICIPANT_ENABLED_VIDEO_TRACK,
+            Events.ON_PARTICIPANT_DISABLED_VIDEO_TRACK,
+            Events.ON_HANDLES_ASSIGNED})
     public @interface Events {
         String ON_CAMERA_SWITCHED = "onCameraSwitched";
+        String ON_CAMERA_SWITCH_FAILED = "onCameraSwitchFailed";
         String ON_VIDEO_CHANGED = "onVideoChanged";
         String ON_AUDIO_CHANGED = "onAudioChanged";
         String ON_CONNECTED = "onRoomDidConnect";
@@ -90,6 +114,27 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         String ON_PARTICIPANT_DISCONNECTED = "onRoomParticipantDidDisconnect";
         String ON_PARTICIPANT_ADDED_VIDEO_TRACK = "onParticipantAddedVideoTrack";
         String ON_PARTICIPANT_REMOVED_VIDEO_TRACK = "onParticipantRemovedVideoTrack";
+        String ON_AUDIO_ONLY_CHANGED = "onAudioOnlyChanged";
+        String ON_BITRATE_LIMITS_APPLIED = "onBitrateLimitsApplied";
+        String ON_RECORDING_STOPPED = "onRecordingStopped";
+        String ON_PERFORMANCE_PROFILE_CHANGED = "onPerformanceProfileChanged";
+        String ON_RENDER_STATS = "onRenderStats";
+        String ON_PICTURE_IN_PICTURE_CHANGED = "onPictureInPictureChanged";
+        String ON_PARTICIPANT_ENABLED_VIDEO_TRACK = "onParticipantEnabledTrack";
+        String ON_PARTICIPANT_DISABLED_VIDEO_TRACK = "onParticipantDisabledTrack";
+        String ON_HANDLES_ASSIGNED = "onHandlesAssigned";
+    }
+
+    @Retention(RetentionPolicy.SOURCE)
+    @StringDef({AudioOnlyReason.COMMAND,
+            AudioOnlyReason.BATTERY,
+            AudioOnlyReason.BANDWIDTH,
+            AudioOnlyReason.DISCONNECTED})
+    public @interface AudioOnlyReason {
+        String COMMAND = "command";
+        String BATTERY = "battery";
+        String BANDWIDTH = "bandwidth";
+        String DISCONNECTED = "disconnected";
     }
 
     private final ThemedReactContext themedReactContext;
@@ -98,21 +143,33 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     /*
      * A Room represents communication between the client and one or more participants.
      */
-    private Room room;
+    private RoomSession room;
     private String roomName = null;
     private String accessToken = null;
-    private LocalParticipant localParticipant;
+    private boolean connected;
 
     /*
      * A VideoView receives frames from a local or remote video track and renders them
      * to an associated view.
      */
-    private static VideoView primaryVideoView;
+    private static VideoRenderer primaryVideoView;
+    private static final Map<String, TileRenderer> tiles = new HashMap<>();
     private static VideoView thumbnailVideoView;
-    private static List<VideoTrack> participantVideoTracks = new ArrayList<VideoTrack>();
+    private static final VideoTrackRegistry participantVideoTracks = new VideoTrackRegistry();
+
+    /*
+     * Track id each registered remote renderer was last registered for, so moving or dropping a
+     * renderer only touches that track instead of every track in the room.
+     */
+    private static final Map<VideoRenderer, String> rendererTrackIds = new HashMap<>();
     private static LocalVideoTrack localVideoTrack;
+    /*
+     * Capture format localVideoTrack was created with.
+     */
+    private static VideoFormat localVideoFormat;
 
     private static CameraCapturer cameraCapturer;
+    private static VideoClient videoClient = VideoClient.DEFAULT;
     private LocalAudioTrack localAudioTrack;
     private AudioManager audioManager;
     private int previousAudioMode;
@@ -120,6 +177,121 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     private IntentFilter intentFilter;
     private BecomingNoisyReceiver myNoisyAudioStreamReceiver;
 
+    /*
+     * Audio-only mode: the local camera is released and remote renderers are detached, but the
+     * Room stays connected. Renderers detached while in this mode are kept per track id so they
+     * can be reattached when video comes back.
+     */
+    private static boolean audioOnly;
+
+    /*
+     * Picture-in-picture: only one remote renderer stays attached, at a capped frame rate, and
+     * the local preview is detached. The view is held weakly so the host Activity can forward
+     * its picture-in-picture callbacks without a reference to it.
+     */
+    private static final int PICTURE_IN_PICTURE_MAX_FPS = 15;
+    private static boolean pictureInPicture;
+    private static String pictureInPictureTrackId;
+    private static String pictureInPictureKeptTrackId;
+    /*
+     * Set when picture-in-picture was picked up from onHostPause rather than forwarded by the
+     * host Activity, so onHostResume knows to end it.
+     */
+    private static boolean pictureInPictureFromPause;
+    private static WeakReference<CustomTwilioVideoView> activeView;
+    private static final Map<String, List<VideoRenderer>> detachedRenderers = new HashMap<>();
+
+    /*
+     * Remote video tracks the sender has disabled. Their renderers are detached and their tiles
+     * drop the video surface until the track is enabled again.
+     */
+    private static final Set<String> disabledVideoTracks = new HashSet<>();
+    @Nullable
+    @AudioOnlyReason
+    private String audioOnlyReason;
+    private int audioOnlyBatteryThreshold;
+    private int audioOnlyBandwidthThreshold;
+    private final CallConditionsMonitor conditionsMonitor;
+    private final CaptureGovernor captureGovernor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /*
+     * Room, participant and track callbacks go through one dispatcher: the JS events are built
+     * by its bridge listener and native listeners registered with TwilioVideoEvents follow.
+     */
+    private final TwilioVideoEvents events = new TwilioVideoEvents(bridgeListener());
+
+    /*
+     * Compact event schema: identities and track ids are sent once through onHandlesAssigned and
+     * events carry their integer handles in flat maps instead of the strings.
+     */
+    private boolean compactEvents;
+    private final EventHandles eventHandles = new EventHandles();
+
+    /*
+     * Start of the camera switch in flight, 0 when none, and whether another switch was
+     * requested meanwhile.
+     */
+    private long cameraSwitchStartNanos;
+    private boolean cameraSwitchQueued;
+
+    /*
+     * Period of the onRenderStats event in ms, 0 when disabled.
+     */
+    private int renderStatsInterval;
+    private final Runnable renderStatsTask = new Runnable() {
+        @Override
+        public void run() {
+            WritableMap event = EventPayloads.createMap();
+            event.putMap("tracks", getRenderStats());
+            pushEvent(CustomTwilioVideoView.this, ON_RENDER_STATS, event);
+            if (renderStatsInterval > 0) {
+                mainHandler.postDelayed(this, renderStatsInterval);
+            }
+        }
+    };
+
+    /*
+     * Send bitrate budget in kbps, 0 meaning unlimited. Stats samples left to skip before the
+     * achieved bitrate is reported back; the first sample after a change still straddles it.
+     */
+    private static int maxAudioBitrate;
+    private static int maxVideoBitrate;
+    private int bitrateCheckSamples;
+
+    /*
+     * Link congestion drops the call to audio-only when outbound loss or round trip time crosses
+     * these, or when video is being sent below audioOnlyBandwidthThreshold. Recovery needs both
+     * signals back under the lower bounds. Either switch takes LINK_SAMPLES samples in a row.
+     * <p>
+     * The send rate is ignored for LINK_SETTLE_MS after video is published, while the encoder
+     * ramps up. Video only comes back after a hold-down that doubles, up to
+     * LINK_HOLD_DOWN_MAX_MS, each time the link drops the call again soon after recovering, so a
+     * marginal link does not flap between video and audio-only.
+     */
+    private static final int LINK_LOSS_PERCENT = 10;
+    private static final int LINK_ROUND_TRIP_MS = 1000;
+    private static final int LINK_RECOVERY_LOSS_PERCENT = 2;
+    private static final int LINK_RECOVERY_ROUND_TRIP_MS = 400;
+    private static final int LINK_SAMPLES = 2;
+    private static final long LINK_SETTLE_MS = 15000;
+    private static final long LINK_HOLD_DOWN_MS = 30000;
+    private static final long LINK_HOLD_DOWN_MAX_MS = 300000;
+    private static final long LINK_BACKOFF_RESET_MS = 120000;
+    private int linkSamples;
+    private long linkHoldDownMs = LINK_HOLD_DOWN_MS;
+    private long linkAudioOnlySinceMs;
+    private long linkVideoBackSinceMs;
+    private long videoPublishedAtMs;
+    private int lastAudioSendKbps;
+    private int lastVideoSendKbps;
+
+    /*
+     * On-device recordings of the local track and of at most one remote track.
+     */
+    private TrackRecorder localRecorder;
+    private TrackRecorder remoteRecorder;
+
     public CustomTwilioVideoView(ThemedReactContext context) {
         super(context);
         this.themedReactContext = context;
@@ -140,26 +312,114 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         audioManager = (AudioManager) themedReactContext.getSystemService(Context.AUDIO_SERVICE);
         myNoisyAudioStreamReceiver = new BecomingNoisyReceiver();
         intentFilter = new IntentFilter(Intent.ACTION_HEADSET_PLUG);
+        conditionsMonitor = new CallConditionsMonitor(themedReactContext, conditionsListener());
+        captureGovernor = new CaptureGovernor(themedReactContext);
+        FlightRecorder.openInBackground(themedReactContext);
+        activeView = new WeakReference<>(this);
     }
 
     // ===== SETUP =================================================================================
 
-    private VideoConstraints buildVideoConstraints() {
+    private static VideoConstraints buildVideoConstraints(VideoFormat format) {
         return new VideoConstraints.Builder()
-                .minVideoDimensions(VideoDimensions.CIF_VIDEO_DIMENSIONS)
-                .maxVideoDimensions(VideoDimensions.CIF_VIDEO_DIMENSIONS)
-                .minFps(5)
-                .maxFps(15)
+                .minVideoDimensions(format.dimensions)
+                .maxVideoDimensions(format.dimensions)
+                .minFps(Math.min(5, format.framerate))
+                .maxFps(format.framerate)
                 .build();
     }
 
+    /*
+     * The format the local track is captured at: the capture stage's profile, moved to the
+     * closest size the camera produces natively so frames are not scaled.
+     */
+    private VideoFormat localCaptureFormat() {
+        int stage = captureStage();
+        VideoDimensions dimensions = CaptureGovernor.captureDimensions(stage);
+        int maxFps = CaptureGovernor.captureFps(stage);
+
+        VideoFormat format = captureFormat(dimensions, maxFps);
+        if (format != null) {
+            dimensions = format.dimensions;
+            maxFps = Math.max(Math.min(maxFps, format.framerate), 5);
+        }
+        return new VideoFormat(dimensions, maxFps, VideoPixelFormat.NV21);
+    }
+
+    private static boolean sameCaptureFormat(VideoFormat a, @Nullable VideoFormat b) {
+        return b != null
+                && a.dimensions.width == b.dimensions.width
+                && a.dimensions.height == b.dimensions.height
+                && a.framerate == b.framerate;
+    }
+
+    @Nullable
+    private VideoFormat captureFormat(VideoDimensions dimensions, int fps) {
+        if (cameraCapturer == null) {
+            return null;
+        }
+        return CaptureFormatSelector.select(getContext(), cameraCapturer, dimensions, fps);
+    }
+
+    /*
+     * The capture profile is the more restrictive of the thermal/battery governor stage and the
+     * stage that fits the video bitrate budget.
+     */
+    private int captureStage() {
+        return Math.max(captureGovernor.getStage(), CaptureGovernor.stageForVideoBitrate(maxVideoBitrate));
+    }
+
+    private void createLocalVideoTrack() {
+        VideoFormat format = localCaptureFormat();
+        localVideoTrack = videoClient.createVideoTrack(getContext(), true, cameraCapturer, buildVideoConstraints(format));
+        localVideoFormat = format;
+    }
+
+    /*
+     * Creates the local video track with the current constraints, renders it to the thumbnail
+     * and shares it if connected to a Room.
+     */
+    private void publishLocalVideoTrack() {
+        if (cameraCapturer == null || localVideoTrack != null) {
+            return;
+        }
+        createLocalVideoTrack();
+        if (localVideoTrack != null) {
+            if (thumbnailVideoView != null && !pictureInPicture) {
+                localVideoTrack.addRenderer(thumbnailVideoView);
+            }
+            if (localRecorder != null) {
+                localVideoTrack.addRenderer(localRecorder);
+            }
+            if (connected) {
+                room.publishVideoTrack(localVideoTrack);
+                videoPublishedAtMs = SystemClock.elapsedRealtime();
+            }
+            setThumbnailMirror();
+        }
+    }
+
+    /*
+     * Releasing the track stops the camera capturer; participants are notified of the removal.
+     */
+    private void unpublishLocalVideoTrack() {
+        if (localVideoTrack != null) {
+            if (connected) {
+                room.unpublishVideoTrack(localVideoTrack);
+            }
+            localVideoTrack.release();
+            localVideoTrack = null;
+            resetCameraSwitch();
+        }
+    }
+
     private void createLocalMedia() {
         // Share your microphone
-        localAudioTrack = LocalAudioTrack.create(getContext(), true);
+        localAudioTrack = videoClient.createAudioTrack(getContext(), true);
         Log.i("CustomTwilioVideoView", "Create local media");
 
         // Share your camera
-        cameraCapturer = new CameraCapturer(
+        cameraCapturer = videoClient.createCameraCapturer(
                 getContext(),
                 CameraCapturer.CameraSource.FRONT_CAMERA,
                 new CameraCapturer.Listener() {
@@ -170,19 +430,30 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
 
                     @Override
                     public void onCameraSwitched() {
-
+                        mainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                onCameraSwitchCompleted();
+                            }
+                        });
                     }
 
                     @Override
-                    public void onError(int i) {
+                    public void onError(final int error) {
                         Log.i("CustomTwilioVideoView", "Error getting camera");
+                        mainHandler.post(new Runnable() {
+                            @Override
+                            public void run() {
+                                onCameraSwitchFailed(error);
+                            }
+                        });
                     }
                 }
         );
 
-        if (cameraCapturer.getSupportedFormats().size() > 0) {
-            localVideoTrack = LocalVideoTrack.create(getContext(), true, cameraCapturer, buildVideoConstraints());
-            if (thumbnailVideoView != null && localVideoTrack != null) {
+        if (!audioOnly && captureFormat(VideoDimensions.CIF_VIDEO_DIMENSIONS, 15) != null) {
+            createLocalVideoTrack();
+            if (thumbnailVideoView != null && localVideoTrack != null && !pictureInPicture) {
                 localVideoTrack.addRenderer(thumbnailVideoView);
             }
             setThumbnailMirror();
@@ -198,34 +469,61 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
          * In case it wasn't set.
          */
         if (themedReactContext.getCurrentActivity() != null) {
+            Activity activity = themedReactContext.getCurrentActivity();
+            if (pictureInPictureFromPause
+                    && (Build.VERSION.SDK_INT < Build.VERSION_CODES.N || !activity.isInPictureInPictureMode())) {
+                pictureInPictureFromPause = false;
+                setPictureInPicture(false);
+            }
+
             /*
             * If the local video track was released when the app was put in the background, recreate.
+            * A track kept through picture-in-picture is still published and needs nothing.
             */
-            if (cameraCapturer != null && localVideoTrack == null) {
-                localVideoTrack = LocalVideoTrack.create(getContext(), true, cameraCapturer, buildVideoConstraints());
+            if (cameraCapturer != null && localVideoTrack == null && !audioOnly) {
+                createLocalVideoTrack();
+                publishRecreatedLocalVideoTrack();
             }
 
-            if (localVideoTrack != null) {
-                if (thumbnailVideoView != null) {
-                    localVideoTrack.addRenderer(thumbnailVideoView);
-                }
+            themedReactContext.getCurrentActivity().setVolumeControlStream(AudioManager.STREAM_VOICE_CALL);
 
-                /*
-                * If connected to a Room then share the local video track.
-                */
-                if (localParticipant != null) {
-                    localParticipant.addVideoTrack(localVideoTrack);
-                }
-            }
+        }
+    }
 
-            themedReactContext.getCurrentActivity().setVolumeControlStream(AudioManager.STREAM_VOICE_CALL);
+    private void publishRecreatedLocalVideoTrack() {
+        if (localVideoTrack != null) {
+            if (thumbnailVideoView != null && !pictureInPicture) {
+                localVideoTrack.addRenderer(thumbnailVideoView);
+            }
+            if (localRecorder != null) {
+                localVideoTrack.addRenderer(localRecorder);
+            }
 
+            /*
+            * If connected to a Room then share the local video track.
+            */
+            if (connected) {
+                room.publishVideoTrack(localVideoTrack);
+                videoPublishedAtMs = SystemClock.elapsedRealtime();
+            }
         }
     }
 
     @Override
     public void onHostPause() {
         Log.i("CustomTwilioVideoView", "Host pause");
+        /*
+         * Entering picture-in-picture pauses the Activity as well, but the call carries on in the
+         * small window: keep the camera published and only drop the local preview.
+         */
+        if (isInPictureInPictureMode()) {
+            if (!pictureInPicture) {
+                pictureInPictureFromPause = true;
+                setPictureInPicture(true);
+            }
+            return;
+        }
+
         /*
          * Release the local video track before going in the background. This ensures that the
          * camera can be used by other applications while this app is in the background.
@@ -236,17 +534,22 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
              * participant before releasing the video track. Participants will be notified that
              * the track has been removed.
              */
-            if (localParticipant != null) {
-                localParticipant.removeVideoTrack(localVideoTrack);
+            if (connected) {
+                room.unpublishVideoTrack(localVideoTrack);
             }
 
             localVideoTrack.release();
             localVideoTrack = null;
+            resetCameraSwitch();
         }
     }
 
     @Override
     public void onHostDestroy() {
+        conditionsMonitor.stop();
+        mainHandler.removeCallbacks(renderStatsTask);
+        stopRecordings();
+
         /*
          * Always disconnect from the room before leaving the Activity to
          * ensure any memory allocated to the Room resource is freed.
@@ -262,6 +565,7 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         if (localVideoTrack != null) {
             localVideoTrack.release();
             localVideoTrack = null;
+            resetCameraSwitch();
         }
 
         if (localAudioTrack != null) {
@@ -278,12 +582,14 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
 
         Log.i("CustomTwilioVideoView", "Starting connect flow");
 
+        long start = SystemClock.elapsedRealtime();
         if (cameraCapturer == null) {
             createLocalMedia();
         } else {
-            localAudioTrack = LocalAudioTrack.create(getContext(), true);
+            localAudioTrack = videoClient.createAudioTrack(getContext(), true);
             connectToRoom();
         }
+        VideoPreloader.onFirstConnect(SystemClock.elapsedRealtime() - start);
     }
 
     public void connectToRoom() {
@@ -291,21 +597,9 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
          * Create a VideoClient allowing you to connect to a Room
          */
         setAudioFocus(true);
-        ConnectOptions.Builder connectOptionsBuilder = new ConnectOptions.Builder(this.accessToken);
-
-        if (this.roomName != null) {
-            connectOptionsBuilder.roomName(this.roomName);
-        }
-
-        if (localAudioTrack != null) {
-            connectOptionsBuilder.audioTracks(Collections.singletonList(localAudioTrack));
-        }
-
-        if (localVideoTrack != null) {
-            connectOptionsBuilder.videoTracks(Collections.singletonList(localVideoTrack));
-        }
 
-        room = Video.connect(getContext(), connectOptionsBuilder.build(), roomListener());
+        room = videoClient.connect(getContext(), this.accessToken, this.roomName,
+                localAudioTrack, localVideoTrack, roomListener());
     }
 
     private void setAudioFocus(boolean focus) {
@@ -343,6 +637,7 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     // ====== DISCONNECTING ========================================================================
 
     public void disconnect() {
+        stopRecordings();
         if (room != null) {
             room.disconnect();
         }
@@ -353,6 +648,7 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         if (localVideoTrack != null) {
             localVideoTrack.release();
             localVideoTrack = null;
+            resetCameraSwitch();
         }
     }
 
@@ -367,81 +663,628 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
         }
     }
 
+    /*
+     * The switch completes asynchronously in CameraCapturer.Listener.onCameraSwitched. Requests
+     * made while a switch is in flight are coalesced: an even number of them cancel out, an odd
+     * number results in one more switch once the current one completes.
+     */
     public void switchCamera() {
-        if (cameraCapturer != null) {
-            cameraCapturer.switchCamera();
-            setThumbnailMirror();
-            CameraCapturer.CameraSource cameraSource = cameraCapturer.getCameraSource();
-            final boolean isBackCamera = cameraSource == CameraCapturer.CameraSource.BACK_CAMERA;
-            WritableMap event = new WritableNativeMap();
-            event.putBoolean("isBackCamera", isBackCamera);
-            pushEvent(CustomTwilioVideoView.this, ON_CAMERA_SWITCHED, event);
+        if (cameraCapturer == null) {
+            throw new IllegalStateException("No camera to switch");
+        }
+        if (cameraSwitchStartNanos != 0) {
+            cameraSwitchQueued = !cameraSwitchQueued;
+            return;
+        }
+        cameraSwitchStartNanos = System.nanoTime();
+        cameraCapturer.switchCamera();
+        if (localVideoTrack == null) {
+            // Not capturing, so the camera is not reopened and no callback will follow.
+            onCameraSwitchCompleted();
         }
     }
 
-    public void toggleVideo(boolean enabled) {
-        if (localVideoTrack != null) {
-            localVideoTrack.enable(enabled);
+    private void onCameraSwitchCompleted() {
+        if (cameraSwitchStartNanos == 0 || cameraCapturer == null) {
+            return;
+        }
+        double latencyMs = (System.nanoTime() - cameraSwitchStartNanos) / 1e6;
+        cameraSwitchStartNanos = 0;
+        FlightRecorder.record(FlightRecorder.CAMERA_SWITCHED, (int) latencyMs, 0, 0);
+
+        setThumbnailMirror();
+        CameraCapturer.CameraSource cameraSource = cameraCapturer.getCameraSource();
+        final boolean isBackCamera = cameraSource == CameraCapturer.CameraSource.BACK_CAMERA;
+        WritableMap event = EventPayloads.createMap();
+        event.putBoolean("isBackCamera", isBackCamera);
+        event.putDouble("latencyMs", latencyMs);
+        pushEvent(CustomTwilioVideoView.this, ON_CAMERA_SWITCHED, event);
+
+        if (cameraSwitchQueued) {
+            cameraSwitchQueued = false;
+            switchCamera();
+        }
+    }
+
+    private void onCameraSwitchFailed(int error) {
+        if (cameraSwitchStartNanos == 0) {
+            return;
+        }
+        resetCameraSwitch();
+
+        WritableMap event = EventPayloads.createMap();
+        event.putInt("error", error);
+        pushEvent(CustomTwilioVideoView.this, ON_CAMERA_SWITCH_FAILED, event);
+    }
+
+    /*
+     * Once the local track is released no switch callback will arrive, so a pending switch
+     * would otherwise swallow every later switchCamera call.
+     */
+    private void resetCameraSwitch() {
+        cameraSwitchStartNanos = 0;
+        cameraSwitchQueued = false;
+    }
 
-            WritableMap event = new WritableNativeMap();
-            event.putBoolean("videoEnabled", enabled);
-            pushEvent(CustomTwilioVideoView.this, ON_VIDEO_CHANGED, event);
+    public void toggleVideo(boolean enabled) {
+        if (localVideoTrack == null) {
+            throw new IllegalStateException("No local video track to toggle");
         }
+        localVideoTrack.enable(enabled);
+
+        WritableMap event = EventPayloads.createMap();
+        event.putBoolean("videoEnabled", enabled);
+        pushEvent(CustomTwilioVideoView.this, ON_VIDEO_CHANGED, event);
     }
 
     public void toggleAudio(boolean enabled) {
-        if (localAudioTrack != null) {
-            localAudioTrack.enable(enabled);
+        if (localAudioTrack == null) {
+            throw new IllegalStateException("No local audio track to toggle");
+        }
+        localAudioTrack.enable(enabled);
+
+        WritableMap event = EventPayloads.createMap();
+        event.putBoolean("audioEnabled", enabled);
+        pushEvent(CustomTwilioVideoView.this, ON_AUDIO_CHANGED, event);
+    }
+
+    // ===== BITRATE LIMITS ========================================================================
+
+    public void setMaxAudioBitrate(int kbps) {
+        setBitrateLimits(kbps, maxVideoBitrate);
+    }
+
+    public void setMaxVideoBitrate(int kbps) {
+        setBitrateLimits(maxAudioBitrate, kbps);
+    }
 
-            WritableMap event = new WritableNativeMap();
-            event.putBoolean("audioEnabled", enabled);
-            pushEvent(CustomTwilioVideoView.this, ON_AUDIO_CHANGED, event);
+    public void setBitrateLimits(int audioKbps, int videoKbps) {
+        int previousStage = captureStage();
+        maxAudioBitrate = Math.max(audioKbps, 0);
+        maxVideoBitrate = Math.max(videoKbps, 0);
+        FlightRecorder.record(FlightRecorder.BITRATE_LIMITS, maxAudioBitrate, maxVideoBitrate, 0);
+
+        onCaptureStageChanged(previousStage, false);
+        if (room != null) {
+            bitrateCheckSamples = 2;
         }
     }
 
-    // ====== ROOM LISTENER ========================================================================
+    private void onSendBitrateSample(int audioKbps, int videoKbps) {
+        if (bitrateCheckSamples == 0 || --bitrateCheckSamples > 0) {
+            return;
+        }
+        WritableMap event = EventPayloads.createMap();
+        event.putInt("maxAudioBitrate", maxAudioBitrate);
+        event.putInt("maxVideoBitrate", maxVideoBitrate);
+        event.putInt("audioBitrate", audioKbps);
+        event.putInt("videoBitrate", videoKbps);
+        event.putBoolean("withinBudget",
+                (maxAudioBitrate == 0 || audioKbps <= maxAudioBitrate)
+                        && (maxVideoBitrate == 0 || videoKbps <= maxVideoBitrate));
+        pushEvent(CustomTwilioVideoView.this, ON_BITRATE_LIMITS_APPLIED, event);
+    }
+
+    // ===== RECORDING =============================================================================
 
     /*
-     * Room events listener
+     * Records the local video track, or the remote track with the given id, to an MP4 file at
+     * path. Only video is recorded.
      */
-    private Room.Listener roomListener() {
-        return new Room.Listener() {
+    /*
+     * Throws IllegalStateException when the recording cannot start, leaving any current
+     * recording running.
+     */
+    public void startRecording(@Nullable String trackId, String path) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            throw new IllegalStateException("Recording requires API 18");
+        }
+        RoomVideoTrack videoTrack = null;
+        if (trackId != null) {
+            videoTrack = participantVideoTracks.get(trackId);
+            if (videoTrack == null) {
+                throw new IllegalStateException("No video track " + trackId + " to record");
+            }
+        }
+
+        TrackRecorder recorder = new TrackRecorder(trackId, path, recorderListener());
+        if (trackId == null) {
+            stopRecording(null);
+            localRecorder = recorder;
+            if (localVideoTrack != null) {
+                localVideoTrack.addRenderer(recorder);
+            }
+        } else {
+            if (remoteRecorder != null) {
+                stopRecording(remoteRecorder.getTrackId());
+            }
+            remoteRecorder = recorder;
+            videoTrack.addRenderer(recorder);
+        }
+        recorder.start();
+    }
+
+    public void stopRecording(@Nullable String trackId) {
+        if (trackId == null) {
+            if (localRecorder != null) {
+                if (localVideoTrack != null) {
+                    localVideoTrack.removeRenderer(localRecorder);
+                }
+                localRecorder.stop();
+                localRecorder = null;
+            }
+        } else if (remoteRecorder != null && trackId.equals(remoteRecorder.getTrackId())) {
+            RoomVideoTrack videoTrack = participantVideoTracks.get(trackId);
+            if (videoTrack != null) {
+                videoTrack.removeRenderer(remoteRecorder);
+            }
+            remoteRecorder.stop();
+            remoteRecorder = null;
+        }
+    }
+
+    private void stopRecordings() {
+        stopRecording(null);
+        if (remoteRecorder != null) {
+            stopRecording(remoteRecorder.getTrackId());
+        }
+    }
+
+    private TrackRecorder.Listener recorderListener() {
+        return new TrackRecorder.Listener() {
             @Override
-            public void onConnected(Room room) {
-                localParticipant = room.getLocalParticipant();
-                WritableMap event = new WritableNativeMap();
-                event.putString("room", room.getName());
-                List<Participant> participants = room.getParticipants();
+            public void onRecordingStopped(TrackRecorder recorder, @Nullable Exception error) {
+                WritableMap event = recorder.getStats();
+                if (error != null) {
+                    event.putString("error", error.getMessage());
+                }
+                pushEvent(CustomTwilioVideoView.this, ON_RECORDING_STOPPED, event);
+            }
+        };
+    }
 
-                WritableArray participantsNames = new WritableNativeArray();
-                for (Participant participant : participants) {
-                    participantsNames.pushString(participant.getIdentity());
+    // ===== RENDER STATS ==========================================================================
+
+    public void setRenderStatsInterval(int intervalMs) {
+        renderStatsInterval = Math.max(intervalMs, 0);
+        mainHandler.removeCallbacks(renderStatsTask);
+        if (renderStatsInterval > 0) {
+            mainHandler.postDelayed(renderStatsTask, renderStatsInterval);
+        }
+    }
+
+    // ===== CAPTURE GOVERNOR ======================================================================
+
+    private void applyCaptureGovernor() {
+        int previousCaptureStage = captureStage();
+        if (!captureGovernor.evaluate()) {
+            return;
+        }
+        TileRenderer.setMaxFps(CaptureGovernor.renderFps(captureGovernor.getStage()));
+        onCaptureStageChanged(previousCaptureStage, true);
+    }
+
+    /*
+     * Called after the governor or the bitrate budget may have moved captureStage(). The SDK
+     * fixes a track's constraints when it is created and cannot change them on a live track, so
+     * a new capture format republishes the local track. Stages that resolve to the camera format
+     * already in use keep the track.
+     */
+    private void onCaptureStageChanged(int previousCaptureStage, boolean governorChanged) {
+        if (captureStage() == previousCaptureStage && !governorChanged) {
+            return;
+        }
+        VideoFormat format = localCaptureFormat();
+        if (localVideoTrack != null && !sameCaptureFormat(format, localVideoFormat)) {
+            unpublishLocalVideoTrack();
+            publishLocalVideoTrack();
+        }
+
+        /*
+         * Capture values are the format the camera is asked for, which the bitrate budget may
+         * hold below stage.
+         */
+        int stage = captureGovernor.getStage();
+        VideoDimensions dimensions = format.dimensions;
+        FlightRecorder.record(FlightRecorder.CAPTURE_PROFILE, stage,
+                dimensions.width << 16 | dimensions.height, format.framerate);
+        WritableMap event = EventPayloads.createMap();
+        event.putInt("stage", stage);
+        event.putInt("maxStage", CaptureGovernor.MAX_STAGE);
+        event.putInt("captureWidth", dimensions.width);
+        event.putInt("captureHeight", dimensions.height);
+        event.putInt("captureFps", format.framerate);
+        event.putInt("renderFps", CaptureGovernor.renderFps(stage));
+        event.putInt("thermalStatus", captureGovernor.getThermalStatus());
+        event.putInt("batteryLevel", captureGovernor.getBatteryLevel());
+        event.putBoolean("charging", captureGovernor.isCharging());
+        pushEvent(CustomTwilioVideoView.this, ON_PERFORMANCE_PROFILE_CHANGED, event);
+    }
+
+    // ===== PICTURE IN PICTURE ====================================================================
+
+    /*
+     * To be called from the host Activity's onPictureInPictureModeChanged.
+     */
+    public static void onPictureInPictureModeChanged(boolean isInPictureInPictureMode) {
+        CustomTwilioVideoView view = activeView != null ? activeView.get() : null;
+        if (view != null) {
+            view.setPictureInPicture(isInPictureInPictureMode);
+        }
+    }
+
+    private boolean isInPictureInPictureMode() {
+        if (pictureInPicture) {
+            return true;
+        }
+        Activity activity = themedReactContext.getCurrentActivity();
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                && activity != null
+                && activity.isInPictureInPictureMode();
+    }
+
+    /*
+     * Track kept rendering in picture-in-picture. When unset or not available, the first remote
+     * track with a renderer is used.
+     */
+    public void setPictureInPictureTrackId(@Nullable String trackId) {
+        pictureInPictureTrackId = trackId;
+        if (pictureInPicture) {
+            restoreRenderersAfterPictureInPicture();
+            reduceRenderersForPictureInPicture();
+        }
+    }
+
+    public void setPictureInPicture(boolean enabled) {
+        if (pictureInPicture == enabled) {
+            return;
+        }
+        pictureInPicture = enabled;
+
+        String trackId = null;
+        if (enabled) {
+            trackId = reduceRenderersForPictureInPicture();
+            if (localVideoTrack != null && thumbnailVideoView != null) {
+                localVideoTrack.removeRenderer(thumbnailVideoView);
+            }
+            TileRenderer.setPictureInPictureMaxFps(PICTURE_IN_PICTURE_MAX_FPS);
+        } else {
+            TileRenderer.setPictureInPictureMaxFps(0);
+            if (localVideoTrack != null && thumbnailVideoView != null) {
+                localVideoTrack.addRenderer(thumbnailVideoView);
+            }
+            restoreRenderersAfterPictureInPicture();
+        }
+
+        WritableMap event = EventPayloads.createMap();
+        event.putBoolean("active", enabled);
+        event.putString("trackId", trackId);
+        pushEvent(CustomTwilioVideoView.this, ON_PICTURE_IN_PICTURE_CHANGED, event);
+    }
+
+    /*
+     * Leaves a single renderer on the chosen track and detaches the rest. Returns the id of the
+     * track left rendering, or null if none is.
+     */
+    @Nullable
+    private static String reduceRenderersForPictureInPicture() {
+        if (audioOnly) {
+            return null;
+        }
+        RoomVideoTrack kept = pictureInPictureTrackId != null
+                ? participantVideoTracks.get(pictureInPictureTrackId)
+                : null;
+        if (kept == null || displayRenderer(kept) == null) {
+            kept = null;
+            for (RoomVideoTrack videoTrack : participantVideoTracks.all()) {
+                if (displayRenderer(videoTrack) != null) {
+                    kept = videoTrack;
+                    break;
                 }
-                event.putArray("participantsNames", participantsNames);
+            }
+        }
 
-                pushEvent(CustomTwilioVideoView.this, ON_CONNECTED, event);
+        for (RoomVideoTrack videoTrack : participantVideoTracks.all()) {
+            if (videoTrack == kept) {
+                detachRenderers(videoTrack, displayRenderer(videoTrack));
+            } else {
+                detachRenderers(videoTrack);
+            }
+        }
+        pictureInPictureKeptTrackId = kept != null ? kept.getTrackId() : null;
+        return pictureInPictureKeptTrackId;
+    }
+
+    private static void restoreRenderersAfterPictureInPicture() {
+        pictureInPictureKeptTrackId = null;
+        if (audioOnly) {
+            return;
+        }
+        for (RoomVideoTrack videoTrack : participantVideoTracks.all()) {
+            reattachRenderers(videoTrack);
+        }
+    }
+
+    // ===== AUDIO ONLY ============================================================================
+
+    public void setAudioOnlyBatteryThreshold(int percent) {
+        audioOnlyBatteryThreshold = percent;
+    }
+
+    public void setAudioOnlyBandwidthThreshold(int kbps) {
+        audioOnlyBandwidthThreshold = kbps;
+    }
+
+    public void setAudioOnly(boolean enabled) {
+        setAudioOnly(enabled, AudioOnlyReason.COMMAND);
+    }
+
+    private void setAudioOnly(boolean enabled, @AudioOnlyReason String reason) {
+        if (audioOnly == enabled) {
+            return;
+        }
+        audioOnly = enabled;
+        audioOnlyReason = enabled ? reason : null;
+        linkSamples = 0;
+        FlightRecorder.record(FlightRecorder.AUDIO_ONLY, enabled ? 1 : 0, 0, 0);
+
+        if (enabled) {
+            unpublishLocalVideoTrack();
+            for (RoomVideoTrack videoTrack : participantVideoTracks.all()) {
+                detachRenderers(videoTrack);
+                updateTileVideo(videoTrack.getTrackId());
+            }
+        } else {
+            publishLocalVideoTrack();
+            for (RoomVideoTrack videoTrack : participantVideoTracks.all()) {
+                reattachRenderers(videoTrack);
+                updateTileVideo(videoTrack.getTrackId());
+            }
+            if (pictureInPicture) {
+                reduceRenderersForPictureInPicture();
+            }
+        }
+
+        WritableMap event = EventPayloads.createMap();
+        event.putBoolean("audioOnly", enabled);
+        event.putString("reason", reason);
+        pushEvent(CustomTwilioVideoView.this, ON_AUDIO_ONLY_CHANGED, event);
+    }
+
+    private static void detachRenderers(RoomVideoTrack videoTrack) {
+        detachRenderers(videoTrack, null);
+    }
+
+    /*
+     * A tile shows video only while its track is enabled and the call is not audio-only.
+     */
+    private static void updateTileVideo(String trackId) {
+        TileRenderer tile;
+        synchronized (tiles) {
+            tile = tiles.get(trackId);
+        }
+        if (tile != null) {
+            tile.getTile().setVideoEnabled(!audioOnly && !disabledVideoTracks.contains(trackId));
+        }
+    }
+
+    /*
+     * First renderer of the track that puts it on screen, skipping recorders.
+     */
+    @Nullable
+    private static VideoRenderer displayRenderer(RoomVideoTrack videoTrack) {
+        for (VideoRenderer renderer : videoTrack.getRenderers()) {
+            if (!(renderer instanceof TrackRecorder)) {
+                return renderer;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Detaches every renderer of the track except keep, remembering them for reattachment.
+     * Recorders stay attached so a recording keeps going through audio-only and
+     * picture-in-picture.
+     */
+    private static void detachRenderers(RoomVideoTrack videoTrack, @Nullable VideoRenderer keep) {
+        List<VideoRenderer> renderers = new ArrayList<>(videoTrack.getRenderers());
+        renderers.remove(keep);
+        for (Iterator<VideoRenderer> iterator = renderers.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() instanceof TrackRecorder) {
+                iterator.remove();
+            }
+        }
+        if (renderers.isEmpty()) {
+            return;
+        }
+        for (VideoRenderer renderer : renderers) {
+            videoTrack.removeRenderer(renderer);
+        }
+        List<VideoRenderer> detached = detachedRenderers.get(videoTrack.getTrackId());
+        if (detached == null) {
+            detachedRenderers.put(videoTrack.getTrackId(), renderers);
+        } else {
+            detached.addAll(renderers);
+        }
+    }
+
+    /*
+     * Renderers of remotely disabled tracks stay detached until the track is enabled again.
+     */
+    private static void reattachRenderers(RoomVideoTrack videoTrack) {
+        if (disabledVideoTracks.contains(videoTrack.getTrackId())) {
+            return;
+        }
+        List<VideoRenderer> renderers = detachedRenderers.remove(videoTrack.getTrackId());
+        if (renderers == null) {
+            return;
+        }
+        for (VideoRenderer renderer : renderers) {
+            videoTrack.addRenderer(renderer);
+        }
+    }
+
+    private CallConditionsMonitor.Listener conditionsListener() {
+        return new CallConditionsMonitor.Listener() {
+            @Override
+            public void onPoll() {
+                captureGovernor.pollThermalStatus();
+                applyCaptureGovernor();
+            }
+
+            @Override
+            public void onBatteryChanged(int levelPercent, boolean charging) {
+                /*
+                 * Battery broadcasts can arrive several times a second; the governor picks the
+                 * level up on the next poll.
+                 */
+                captureGovernor.onBatteryChanged(levelPercent, charging);
+
+                if (audioOnlyBatteryThreshold <= 0) {
+                    return;
+                }
+                if (!audioOnly && !charging && levelPercent <= audioOnlyBatteryThreshold) {
+                    setAudioOnly(true, AudioOnlyReason.BATTERY);
+                } else if (audioOnly && AudioOnlyReason.BATTERY.equals(audioOnlyReason)
+                        && (charging || levelPercent > audioOnlyBatteryThreshold)) {
+                    setAudioOnly(false, AudioOnlyReason.BATTERY);
+                }
+            }
+
+            @Override
+            public void onSendBitrateChanged(int audioKbps, int videoKbps) {
+                lastAudioSendKbps = audioKbps;
+                lastVideoSendKbps = videoKbps;
+                onSendBitrateSample(audioKbps, videoKbps);
+            }
+
+            @Override
+            public void onLinkQuality(int lossPercent, int roundTripTimeMs) {
+                FlightRecorder.record(FlightRecorder.STATS_SAMPLE,
+                        lossPercent << 16 | Math.min(roundTripTimeMs, 0xFFFF), lastAudioSendKbps, lastVideoSendKbps);
+                if (audioOnlyBandwidthThreshold <= 0) {
+                    linkSamples = 0;
+                    return;
+                }
+
+                long now = SystemClock.elapsedRealtime();
+                if (!audioOnly) {
+                    boolean sendingVideo = localVideoTrack != null && localVideoTrack.isEnabled()
+                            && now - videoPublishedAtMs >= LINK_SETTLE_MS;
+                    int videoFloor = maxVideoBitrate > 0
+                            ? Math.min(audioOnlyBandwidthThreshold, maxVideoBitrate)
+                            : audioOnlyBandwidthThreshold;
+                    boolean congested = lossPercent >= LINK_LOSS_PERCENT
+                            || roundTripTimeMs >= LINK_ROUND_TRIP_MS
+                            || (sendingVideo && lastVideoSendKbps < videoFloor);
+                    linkSamples = congested ? linkSamples + 1 : 0;
+                    if (linkSamples >= LINK_SAMPLES) {
+                        linkSamples = 0;
+                        boolean relapsed = linkVideoBackSinceMs != 0
+                                && now - linkVideoBackSinceMs < LINK_BACKOFF_RESET_MS;
+                        linkHoldDownMs = relapsed
+                                ? Math.min(linkHoldDownMs * 2, LINK_HOLD_DOWN_MAX_MS)
+                                : LINK_HOLD_DOWN_MS;
+                        linkAudioOnlySinceMs = now;
+                        setAudioOnly(true, AudioOnlyReason.BANDWIDTH);
+                    }
+                } else if (AudioOnlyReason.BANDWIDTH.equals(audioOnlyReason)) {
+                    boolean clear = lossPercent <= LINK_RECOVERY_LOSS_PERCENT
+                            && roundTripTimeMs < LINK_RECOVERY_ROUND_TRIP_MS;
+                    linkSamples = clear ? linkSamples + 1 : 0;
+                    if (linkSamples >= LINK_SAMPLES && now - linkAudioOnlySinceMs >= linkHoldDownMs) {
+                        linkSamples = 0;
+                        linkVideoBackSinceMs = now;
+                        setAudioOnly(false, AudioOnlyReason.BANDWIDTH);
+                    }
+                }
+            }
+        };
+    }
+
+    // ====== ROOM LISTENER ========================================================================
+
+    /*
+     * Room events listener
+     */
+    private RoomSession.Listener roomListener() {
+        return new RoomSession.Listener() {
+            @Override
+            public void onConnected(RoomSession room) {
+                CustomTwilioVideoView.this.room = room;
+                connected = true;
+                videoPublishedAtMs = SystemClock.elapsedRealtime();
+                conditionsMonitor.start(room);
+                VideoPreloader.releaseWarmTrack();
+                if (maxAudioBitrate > 0 || maxVideoBitrate > 0) {
+                    bitrateCheckSamples = 2;
+                }
+                List<RoomParticipant> participants = room.getParticipants();
+                FlightRecorder.record(FlightRecorder.ROOM_CONNECTED,
+                        participants.size(), FlightRecorder.hash(room.getName()), 0);
+                events.onConnected(room);
 
                 //noinspection LoopStatementThatDoesntLoop
-                for (Participant participant : participants) {
-                    addParticipant(participant);
+                for (RoomParticipant participant : participants) {
+                    addParticipant(room, participant);
                     break;
                 }
             }
 
             @Override
-            public void onConnectFailure(Room room, TwilioException e) {
-                WritableMap event = new WritableNativeMap();
-                event.putString("reason", e.getExplanation());
-                pushEvent(CustomTwilioVideoView.this, ON_CONNECT_FAILURE, event);
+            public void onConnectFailure(RoomSession room, TwilioException e) {
+                FlightRecorder.record(FlightRecorder.ROOM_CONNECT_FAILURE, e.getCode(), 0, 0);
+                events.onConnectFailure(room, e);
             }
 
             @Override
-            public void onDisconnected(Room room, TwilioException e) {
-                WritableMap event = new WritableNativeMap();
-                event.putString("participant", localParticipant.getIdentity());
-                pushEvent(CustomTwilioVideoView.this, ON_DISCONNECTED, event);
-
-                localParticipant = null;
+            public void onDisconnected(RoomSession room, TwilioException e) {
+                FlightRecorder.record(FlightRecorder.ROOM_DISCONNECTED, e != null ? e.getCode() : 0, 0, 0);
+                events.onDisconnected(room, e);
+
+                stopRecordings();
+                conditionsMonitor.stop();
+                if (audioOnly) {
+                    audioOnly = false;
+                    audioOnlyReason = null;
+                    WritableMap audioOnlyEvent = EventPayloads.createMap();
+                    audioOnlyEvent.putBoolean("audioOnly", false);
+                    audioOnlyEvent.putString("reason", AudioOnlyReason.DISCONNECTED);
+                    pushEvent(CustomTwilioVideoView.this, ON_AUDIO_ONLY_CHANGED, audioOnlyEvent);
+                }
+                linkSamples = 0;
+                linkHoldDownMs = LINK_HOLD_DOWN_MS;
+                linkAudioOnlySinceMs = 0;
+                linkVideoBackSinceMs = 0;
+                pictureInPicture = false;
+                pictureInPictureFromPause = false;
+                pictureInPictureKeptTrackId = null;
+                TileRenderer.setPictureInPictureMaxFps(0);
+                detachedRenderers.clear();
+                disabledVideoTracks.clear();
+                connected = false;
+                participantVideoTracks.clear();
+                rendererTrackIds.clear();
                 roomName = null;
                 accessToken = null;
 
@@ -454,21 +1297,13 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
             }
 
             @Override
-            public void onParticipantConnected(Room room, Participant participant) {
-                addParticipant(participant);
+            public void onParticipantConnected(RoomSession room, RoomParticipant participant) {
+                addParticipant(room, participant);
             }
 
             @Override
-            public void onParticipantDisconnected(Room room, Participant participant) {
-                removeParticipant(participant);
-            }
-
-            @Override
-            public void onRecordingStarted(Room room) {
-            }
-
-            @Override
-            public void onRecordingStopped(Room room) {
+            public void onParticipantDisconnected(RoomSession room, RoomParticipant participant) {
+                removeParticipant(room, participant);
             }
         };
     }
@@ -476,13 +1311,11 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     /*
      * Called when participant joins the room
      */
-    private void addParticipant(Participant participant) {
+    private void addParticipant(RoomSession room, RoomParticipant participant) {
         Log.i("CustomTwilioVideoView", "ADD PARTICIPANT ");
-
-        WritableMap event = new WritableNativeMap();
-        event.putString("participant", participant.getIdentity());
-
-        pushEvent(this, ON_PARTICIPANT_CONNECTED, event);
+        FlightRecorder.record(FlightRecorder.PARTICIPANT_CONNECTED,
+                FlightRecorder.hash(participant.getIdentity()), 0, 0);
+        events.onParticipantConnected(room, participant);
         /*
          * Add participant renderer
          */
@@ -508,10 +1341,10 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
     /*
      * Called when participant leaves the room
      */
-    private void removeParticipant(Participant participant) {
-        WritableMap event = new WritableNativeMap();
-        event.putString("participant", participant.getIdentity());
-        pushEvent(this, ON_PARTICIPANT_DISCONNECTED, event);
+    private void removeParticipant(RoomSession room, RoomParticipant participant) {
+        FlightRecorder.record(FlightRecorder.PARTICIPANT_DISCONNECTED,
+                FlightRecorder.hash(participant.getIdentity()), 0, 0);
+        events.onParticipantDisconnected(room, participant);
 
         /*
          * Remove participant renderer
@@ -529,125 +1362,316 @@ public class CustomTwilioVideoView extends View implements LifecycleEventListene
 
     // ====== MEDIA LISTENER =======================================================================
 
-    private Participant.Listener mediaListener() {
-        return new Participant.Listener() {
+    private RoomParticipant.Listener mediaListener() {
+        return new RoomParticipant.Listener() {
             @Override
-            public void onAudioTrackAdded(Participant participant, AudioTrack audioTrack) {
-
+            public void onAudioTrackAdded(RoomParticipant participant, RoomAudioTrack audioTrack) {
+                events.onAudioTrackAdded(participant, audioTrack);
             }
 
             @Override
-            public void onAudioTrackRemoved(Participant participant, AudioTrack audioTrack) {
-
+            public void onAudioTrackRemoved(RoomParticipant participant, RoomAudioTrack audioTrack) {
+                events.onAudioTrackRemoved(participant, audioTrack);
             }
 
             @Override
-            public void onVideoTrackAdded(Participant participant, VideoTrack videoTrack) {
+            public void onVideoTrackAdded(RoomParticipant participant, RoomVideoTrack videoTrack) {
                 Log.i("CustomTwilioVideoView", "Participant ADDED TRACK");
 
                 addParticipantVideo(participant, videoTrack);
             }
 
             @Override
-            public void onVideoTrackRemoved(Participant participant, VideoTrack videoTrack) {
+            public void onVideoTrackRemoved(RoomParticipant participant, RoomVideoTrack videoTrack) {
                 Log.i("CustomTwilioVideoView", "Participant REMOVED TRACK");
                 removeParticipantVideo(participant, videoTrack);
             }
 
             @Override
-            public void onAudioTrackEnabled(Participant participant, AudioTrack audioTrack) {
-
+            public void onAudioTrackEnabled(RoomParticipant participant, RoomAudioTrack audioTrack) {
+                events.onAudioTrackEnabled(participant, audioTrack);
             }
 
             @Override
-            public void onAudioTrackDisabled(Participant participant, AudioTrack audioTrack) {
-
+            public void onAudioTrackDisabled(RoomParticipant participant, RoomAudioTrack audioTrack) {
+                events.onAudioTrackDisabled(participant, audioTrack);
             }
 
             @Override
-            public void onVideoTrackEnabled(Participant participant, VideoTrack videoTrack) {
-
+            public void onVideoTrackEnabled(RoomParticipant participant, RoomVideoTrack videoTrack) {
+                setParticipantVideoEnabled(participant, videoTrack, true);
             }
 
             @Override
-            public void onVideoTrackDisabled(Participant participant, VideoTrack videoTrack) {
-
+            public void onVideoTrackDisabled(RoomParticipant participant, RoomVideoTrack videoTrack) {
+                setParticipantVideoEnabled(participant, videoTrack, false);
             }
         };
     }
 
-    private WritableMap buildParticipantVideoEvent(Participant participant, VideoTrack videoTrack) {
-        WritableMap participantMap = new WritableNativeMap();
-        participantMap.putString("identity", participant.getIdentity());
+    private void addParticipantVideo(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        Log.i("CustomTwilioVideoView", "add Participant Video");
+        if (!videoTrack.isEnabled()) {
+            disabledVideoTracks.add(videoTrack.getTrackId());
+        }
 
-        WritableMap trackMap = new WritableNativeMap();
-        trackMap.putString("trackId", videoTrack.getTrackId());
+        participantVideoTracks.add(videoTrack);
+        FlightRecorder.record(FlightRecorder.VIDEO_TRACK_ADDED, FlightRecorder.hash(participant.getIdentity()),
+                FlightRecorder.hash(videoTrack.getTrackId()), 0);
 
-        WritableMap event = new WritableNativeMap();
-        event.putMap("participant", participantMap);
-        event.putMap("track", trackMap);
-        return event;
+        events.onVideoTrackAdded(participant, videoTrack);
     }
 
-    private void addParticipantVideo(Participant participant, VideoTrack videoTrack) {
-        Log.i("CustomTwilioVideoView", "add Participant Video");
+    private void setParticipantVideoEnabled(RoomParticipant participant, RoomVideoTrack videoTrack, boolean enabled) {
+        String trackId = videoTrack.getTrackId();
+        if (enabled) {
+            disabledVideoTracks.remove(trackId);
+            if (!audioOnly) {
+                reattachRenderers(videoTrack);
+                if (pictureInPicture) {
+                    reduceRenderersForPictureInPicture();
+                }
+            }
+        } else {
+            disabledVideoTracks.add(trackId);
+            detachRenderers(videoTrack);
+        }
 
-        participantVideoTracks.add(participantVideoTracks.size(), videoTrack);
+        updateTileVideo(trackId);
 
-        WritableMap event = this.buildParticipantVideoEvent(participant, videoTrack);
-        pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_ADDED_VIDEO_TRACK, event);
+        if (enabled) {
+            events.onVideoTrackEnabled(participant, videoTrack);
+        } else {
+            events.onVideoTrackDisabled(participant, videoTrack);
+        }
     }
 
-    private void removeParticipantVideo(Participant participant, VideoTrack deleteVideoTrack) {
+    private void removeParticipantVideo(RoomParticipant participant, RoomVideoTrack deleteVideoTrack) {
         Log.i("CustomTwilioVideoView", "Remove participant");
-        List<VideoTrack> newParticipantTracks = new ArrayList<VideoTrack>();
-        for (VideoTrack videoTrack : participantVideoTracks) {
-            Log.i("CustomTwilioVideoView", videoTrack.getTrackId());
+        stopRecording(deleteVideoTrack.getTrackId());
+        participantVideoTracks.remove(deleteVideoTrack.getTrackId());
+        FlightRecorder.record(FlightRecorder.VIDEO_TRACK_REMOVED, FlightRecorder.hash(participant.getIdentity()),
+                FlightRecorder.hash(deleteVideoTrack.getTrackId()), 0);
+        synchronized (tiles) {
+            tiles.remove(deleteVideoTrack.getTrackId());
+        }
+        detachedRenderers.remove(deleteVideoTrack.getTrackId());
+        disabledVideoTracks.remove(deleteVideoTrack.getTrackId());
+        rendererTrackIds.values().removeAll(Collections.singleton(deleteVideoTrack.getTrackId()));
+        if (pictureInPicture && deleteVideoTrack.getTrackId().equals(pictureInPictureKeptTrackId)) {
+            // Hand picture-in-picture over to another track.
+            restoreRenderersAfterPictureInPicture();
+            reduceRenderersForPictureInPicture();
+        }
 
-            if (videoTrack.getTrackId().equals(deleteVideoTrack.getTrackId())) {
-                Log.i("CustomTwilioVideoView", "FOUND THE MATCHING TRACK");
+        events.onVideoTrackRemoved(participant, deleteVideoTrack);
+    }
+    // ===== EVENTS TO RN ==========================================================================
 
-            } else {
-                newParticipantTracks.add(newParticipantTracks.size(), videoTrack);
+    public void setCompactEvents(boolean enabled) {
+        compactEvents = enabled;
+    }
+
+    /*
+     * Builds the JS events from the shared dispatcher callbacks.
+     */
+    private TwilioVideoListener bridgeListener() {
+        return new TwilioVideoListener.Adapter() {
+            @Override
+            public void onConnected(RoomSession room) {
+                WritableMap event = EventPayloads.createMap();
+                event.putString("room", room.getName());
+
+                WritableArray participantsNames = EventPayloads.createArray();
+                for (RoomParticipant participant : room.getParticipants()) {
+                    if (compactEvents) {
+                        participantsNames.pushInt(eventHandles.handle(participant.getIdentity()));
+                    } else {
+                        participantsNames.pushString(participant.getIdentity());
+                    }
+                }
+                event.putArray("participantsNames", participantsNames);
+                pushAssignedHandles();
+
+                pushEvent(CustomTwilioVideoView.this, ON_CONNECTED, event);
+            }
+
+            @Override
+            public void onConnectFailure(RoomSession room, TwilioException e) {
+                WritableMap event = EventPayloads.createMap();
+                event.putString("reason", e.getExplanation());
+                pushEvent(CustomTwilioVideoView.this, ON_CONNECT_FAILURE, event);
+            }
+
+            @Override
+            public void onDisconnected(RoomSession room, @Nullable TwilioException e) {
+                pushEvent(CustomTwilioVideoView.this, ON_DISCONNECTED,
+                        buildParticipantEvent(room.getLocalIdentity()));
+                eventHandles.clear();
+            }
+
+            @Override
+            public void onParticipantConnected(RoomSession room, RoomParticipant participant) {
+                pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_CONNECTED,
+                        buildParticipantEvent(participant.getIdentity()));
+            }
+
+            @Override
+            public void onParticipantDisconnected(RoomSession room, RoomParticipant participant) {
+                pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_DISCONNECTED,
+                        buildParticipantEvent(participant.getIdentity()));
+            }
+
+            @Override
+            public void onVideoTrackAdded(RoomParticipant participant, RoomVideoTrack videoTrack) {
+                pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_ADDED_VIDEO_TRACK,
+                        buildParticipantVideoEvent(participant, videoTrack));
+            }
+
+            @Override
+            public void onVideoTrackRemoved(RoomParticipant participant, RoomVideoTrack videoTrack) {
+                pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_REMOVED_VIDEO_TRACK,
+                        buildParticipantVideoEvent(participant, videoTrack));
             }
+
+            @Override
+            public void onVideoTrackEnabled(RoomParticipant participant, RoomVideoTrack videoTrack) {
+                pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_ENABLED_VIDEO_TRACK,
+                        buildParticipantVideoEvent(participant, videoTrack));
+            }
+
+            @Override
+            public void onVideoTrackDisabled(RoomParticipant participant, RoomVideoTrack videoTrack) {
+                pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_DISABLED_VIDEO_TRACK,
+                        buildParticipantVideoEvent(participant, videoTrack));
+            }
+        };
+    }
+
+    /*
+     * Sends the mapping for handles assigned while building an event. Must run before that event
+     * is pushed so JS can always resolve the handles it receives.
+     */
+    private void pushAssignedHandles() {
+        if (eventHandles.hasPending()) {
+            pushEvent(this, ON_HANDLES_ASSIGNED, eventHandles.drainPending());
         }
+    }
 
-        participantVideoTracks = newParticipantTracks;
-        WritableMap event = this.buildParticipantVideoEvent(participant, deleteVideoTrack);
-        pushEvent(CustomTwilioVideoView.this, ON_PARTICIPANT_REMOVED_VIDEO_TRACK, event);
+    private WritableMap buildParticipantEvent(String identity) {
+        if (compactEvents) {
+            WritableMap event = EventPayloads.participantEvent(eventHandles.handle(identity));
+            pushAssignedHandles();
+            return event;
+        }
+        return EventPayloads.participantEvent(identity);
+    }
+
+    private WritableMap buildParticipantVideoEvent(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        if (compactEvents) {
+            WritableMap event = EventPayloads.participantVideoEvent(
+                    eventHandles.handle(participant.getIdentity()),
+                    eventHandles.handle(videoTrack.getTrackId()));
+            pushAssignedHandles();
+            return event;
+        }
+        return EventPayloads.participantVideoEvent(participant.getIdentity(), videoTrack.getTrackId());
     }
-    // ===== EVENTS TO RN ==========================================================================
 
     void pushEvent(View view, String name, WritableMap data) {
         eventEmitter.receiveEvent(view.getId(), name, data);
     }
 
-    public static void registerPrimaryVideoView(VideoView v, String trackId) {
-        String sizeString = Integer.toString(participantVideoTracks.size());
-
+    public static void registerPrimaryVideoView(VideoRenderer v, String trackId) {
         Log.i("CustomTwilioVideoView", "register Primary Video");
         Log.i("CustomTwilioVideoView", trackId);
         primaryVideoView = v;
 
-        if (participantVideoTracks != null) {
-
-            Log.i("CustomTwilioVideoView", "Found Partiipant tracks");
+        if (v instanceof TileRenderer) {
+            TileRenderer tile = (TileRenderer) v;
+            synchronized (tiles) {
+                tiles.values().remove(tile);
+                tiles.put(trackId, tile);
+            }
+            tile.setTrackId(trackId);
+            updateTileVideo(trackId);
+        }
 
-            for (VideoTrack videoTrack : participantVideoTracks) {
-                Log.i("CustomTwilioVideoView", videoTrack.getTrackId());
+        String previousTrackId = rendererTrackIds.put(v, trackId);
+        if (previousTrackId != null && !previousTrackId.equals(trackId)) {
+            releaseRenderer(v, previousTrackId);
+        }
 
-                List<VideoRenderer> renders = videoTrack.getRenderers();
-                if (videoTrack.getTrackId().equals(trackId)) {
-                    Log.i("CustomTwilioVideoView", "FOUND THE MATCHING TRACK");
-                    videoTrack.addRenderer(v);
+        RoomVideoTrack videoTrack = participantVideoTracks.get(trackId);
+        if (videoTrack != null) {
+            Log.i("CustomTwilioVideoView", "FOUND THE MATCHING TRACK");
+            videoTrack.addRenderer(v);
+            if (audioOnly || disabledVideoTracks.contains(trackId)) {
+                detachRenderers(videoTrack);
+            } else if (pictureInPicture) {
+                if (pictureInPictureKeptTrackId == null || trackId.equals(pictureInPictureTrackId)) {
+                    // Nothing renders yet, or the preferred track just got its renderer.
+                    reduceRenderersForPictureInPicture();
+                } else if (trackId.equals(pictureInPictureKeptTrackId)) {
+                    detachRenderers(videoTrack, displayRenderer(videoTrack));
                 } else {
-                    videoTrack.removeRenderer(v);
-
+                    detachRenderers(videoTrack);
                 }
             }
         }
     }
 
+    /*
+     * Removes the renderer from the track, attached or detached.
+     */
+    private static void releaseRenderer(VideoRenderer v, String trackId) {
+        RoomVideoTrack videoTrack = participantVideoTracks.get(trackId);
+        if (videoTrack != null) {
+            videoTrack.removeRenderer(v);
+        }
+        List<VideoRenderer> detached = detachedRenderers.get(trackId);
+        if (detached != null) {
+            detached.remove(v);
+        }
+    }
+
+    /*
+     * Called when a remote preview is dropped so its renderer stops receiving frames.
+     */
+    public static void unregisterPrimaryVideoView(VideoRenderer v) {
+        if (primaryVideoView == v) {
+            primaryVideoView = null;
+        }
+        synchronized (tiles) {
+            tiles.values().remove(v);
+        }
+        String trackId = rendererTrackIds.remove(v);
+        if (trackId != null) {
+            releaseRenderer(v, trackId);
+        }
+    }
+
+    /*
+     * Frame timing summaries of every remote tile, keyed by track id.
+     */
+    static WritableMap getRenderStats() {
+        WritableMap stats = EventPayloads.createMap();
+        synchronized (tiles) {
+            for (Map.Entry<String, TileRenderer> entry : tiles.entrySet()) {
+                stats.putMap(entry.getKey(), entry.getValue().summarize());
+            }
+        }
+        return stats;
+    }
+
+    /*
+     * Replaces the client used to create local media and connect to rooms. Intended for
+     * harnesses that drive the view without a real Twilio backend; pass null to restore the SDK.
+     */
+    public static void setVideoClient(@Nullable VideoClient client) {
+        videoClient = client != null ? client : VideoClient.DEFAULT;
+    }
+
     public static void registerThumbnailVideoView(VideoView v) {
         thumbnailVideoView = v;
         if (localVideoTrack != null) {
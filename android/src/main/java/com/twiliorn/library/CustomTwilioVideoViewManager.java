@@ -9,6 +9,7 @@
 package com.twiliorn.library;
 
 import android.support.annotation.Nullable;
+import android.util.Log;
 
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.common.MapBuilder;
@@ -19,7 +20,10 @@ import com.facebook.react.uimanager.annotations.ReactProp;
 import java.util.Map;
 
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_AUDIO_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_AUDIO_ONLY_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_BITRATE_LIMITS_APPLIED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CAMERA_SWITCHED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CAMERA_SWITCH_FAILED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CONNECTED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_CONNECT_FAILURE;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_DISCONNECTED;
@@ -28,6 +32,13 @@ import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_D
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_VIDEO_CHANGED;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_ADDED_VIDEO_TRACK;
 import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_REMOVED_VIDEO_TRACK;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_RECORDING_STOPPED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PERFORMANCE_PROFILE_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_RENDER_STATS;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PICTURE_IN_PICTURE_CHANGED;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_ENABLED_VIDEO_TRACK;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_DISABLED_VIDEO_TRACK;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_HANDLES_ASSIGNED;
 
 public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilioVideoView> {
     public static final String REACT_CLASS = "RNCustomTwilioVideoView";
@@ -37,6 +48,11 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
     private static final int SWITCH_CAMERA = 3;
     private static final int TOGGLE_VIDEO = 4;
     private static final int TOGGLE_SOUND = 5;
+    private static final int SET_AUDIO_ONLY = 6;
+    private static final int SET_BITRATE_LIMITS = 7;
+    private static final int START_RECORDING = 8;
+    private static final int STOP_RECORDING = 9;
+    private static final int SET_PICTURE_IN_PICTURE = 10;
 
     @Override
     public String getName() {
@@ -50,6 +66,20 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
 
     @Override
     public void receiveCommand(CustomTwilioVideoView view, int commandId, @Nullable ReadableArray args) {
+        try {
+            runCommand(view, commandId, args);
+        } catch (IllegalStateException e) {
+            // Fire-and-forget commands have no caller to report to.
+            Log.w(REACT_CLASS, "Command " + commandId + " failed: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Shared by the view command path and the batched commands of TwilioVideoModule. Returns
+     * false for an unknown command id and throws IllegalStateException when the view cannot
+     * carry the command out.
+     */
+    static boolean runCommand(CustomTwilioVideoView view, int commandId, @Nullable ReadableArray args) {
         switch (commandId) {
             case CONNECT_TO_ROOM:
                 String roomName = args.getString(0);
@@ -70,7 +100,67 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
                 Boolean audioEnabled = args.getBoolean(0);
                 view.toggleAudio(audioEnabled);
                 break;
+            case SET_AUDIO_ONLY:
+                Boolean audioOnly = args.getBoolean(0);
+                view.setAudioOnly(audioOnly);
+                break;
+            case SET_BITRATE_LIMITS:
+                int maxAudioBitrate = args.getInt(0);
+                int maxVideoBitrate = args.getInt(1);
+                view.setBitrateLimits(maxAudioBitrate, maxVideoBitrate);
+                break;
+            case START_RECORDING:
+                String recordingPath = args.getString(0);
+                String recordingTrackId = args.isNull(1) ? null : args.getString(1);
+                view.startRecording(recordingTrackId, recordingPath);
+                break;
+            case STOP_RECORDING:
+                String stopTrackId = args.isNull(0) ? null : args.getString(0);
+                view.stopRecording(stopTrackId);
+                break;
+            case SET_PICTURE_IN_PICTURE:
+                Boolean pictureInPicture = args.getBoolean(0);
+                view.setPictureInPicture(pictureInPicture);
+                break;
+            default:
+                return false;
         }
+        return true;
+    }
+
+    @ReactProp(name = "audioOnlyBatteryThreshold", defaultInt = 0)
+    public void setAudioOnlyBatteryThreshold(CustomTwilioVideoView view, int percent) {
+        view.setAudioOnlyBatteryThreshold(percent);
+    }
+
+    @ReactProp(name = "audioOnlyBandwidthThreshold", defaultInt = 0)
+    public void setAudioOnlyBandwidthThreshold(CustomTwilioVideoView view, int kbps) {
+        view.setAudioOnlyBandwidthThreshold(kbps);
+    }
+
+    @ReactProp(name = "maxAudioBitrate", defaultInt = 0)
+    public void setMaxAudioBitrate(CustomTwilioVideoView view, int kbps) {
+        view.setMaxAudioBitrate(kbps);
+    }
+
+    @ReactProp(name = "maxVideoBitrate", defaultInt = 0)
+    public void setMaxVideoBitrate(CustomTwilioVideoView view, int kbps) {
+        view.setMaxVideoBitrate(kbps);
+    }
+
+    @ReactProp(name = "renderStatsInterval", defaultInt = 0)
+    public void setRenderStatsInterval(CustomTwilioVideoView view, int intervalMs) {
+        view.setRenderStatsInterval(intervalMs);
+    }
+
+    @ReactProp(name = "compactEvents", defaultBoolean = false)
+    public void setCompactEvents(CustomTwilioVideoView view, boolean enabled) {
+        view.setCompactEvents(enabled);
+    }
+
+    @ReactProp(name = "pictureInPictureTrackId")
+    public void setPictureInPictureTrackId(CustomTwilioVideoView view, @Nullable String trackId) {
+        view.setPictureInPictureTrackId(trackId);
     }
 
     @Override
@@ -89,7 +179,20 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
         map.putAll(MapBuilder.of(
                 ON_PARTICIPANT_DISCONNECTED, MapBuilder.of("registrationName", ON_PARTICIPANT_DISCONNECTED),
                 ON_PARTICIPANT_ADDED_VIDEO_TRACK, MapBuilder.of("registrationName", ON_PARTICIPANT_ADDED_VIDEO_TRACK),
-                ON_PARTICIPANT_REMOVED_VIDEO_TRACK, MapBuilder.of("registrationName", ON_PARTICIPANT_REMOVED_VIDEO_TRACK)
+                ON_PARTICIPANT_REMOVED_VIDEO_TRACK, MapBuilder.of("registrationName", ON_PARTICIPANT_REMOVED_VIDEO_TRACK),
+                ON_AUDIO_ONLY_CHANGED, MapBuilder.of("registrationName", ON_AUDIO_ONLY_CHANGED),
+                ON_BITRATE_LIMITS_APPLIED, MapBuilder.of("registrationName", ON_BITRATE_LIMITS_APPLIED),
+                ON_RECORDING_STOPPED, MapBuilder.of("registrationName", ON_RECORDING_STOPPED),
+                ON_PERFORMANCE_PROFILE_CHANGED, MapBuilder.of("registrationName", ON_PERFORMANCE_PROFILE_CHANGED)
+        ));
+
+        map.putAll(MapBuilder.of(
+                ON_RENDER_STATS, MapBuilder.of("registrationName", ON_RENDER_STATS),
+                ON_PICTURE_IN_PICTURE_CHANGED, MapBuilder.of("registrationName", ON_PICTURE_IN_PICTURE_CHANGED),
+                ON_PARTICIPANT_ENABLED_VIDEO_TRACK, MapBuilder.of("registrationName", ON_PARTICIPANT_ENABLED_VIDEO_TRACK),
+                ON_PARTICIPANT_DISABLED_VIDEO_TRACK, MapBuilder.of("registrationName", ON_PARTICIPANT_DISABLED_VIDEO_TRACK),
+                ON_HANDLES_ASSIGNED, MapBuilder.of("registrationName", ON_HANDLES_ASSIGNED),
+                ON_CAMERA_SWITCH_FAILED, MapBuilder.of("registrationName", ON_CAMERA_SWITCH_FAILED)
         ));
 
         return map;
@@ -98,12 +201,26 @@ public class CustomTwilioVideoViewManager extends SimpleViewManager<CustomTwilio
     @Override
     @Nullable
     public Map<String, Integer> getCommandsMap() {
-        return MapBuilder.of(
+        return commands();
+    }
+
+    static Map<String, Integer> commands() {
+        Map<String, Integer> map = MapBuilder.of(
                 "connectToRoom", CONNECT_TO_ROOM,
                 "disconnect", DISCONNECT,
                 "switchCamera", SWITCH_CAMERA,
                 "toggleVideo", TOGGLE_VIDEO,
                 "toggleSound", TOGGLE_SOUND
         );
+
+        map.putAll(MapBuilder.of(
+                "setAudioOnly", SET_AUDIO_ONLY,
+                "setBitrateLimits", SET_BITRATE_LIMITS,
+                "startRecording", START_RECORDING,
+                "stopRecording", STOP_RECORDING,
+                "setPictureInPicture", SET_PICTURE_IN_PICTURE
+        ));
+
+        return map;
     }
 }
@@ -0,0 +1,62 @@
+/**
+ * Assigns small integer handles to participant identities and track ids for
+ * the compact event schema. Each string is sent to JS once, in an
+ * onHandlesAssigned event, and referenced by handle afterwards.
+ */
+package com.twiliorn.library;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class EventHandles {
+    /*
+     * Handles are dense from 0 so JS can keep the strings in a plain array indexed by handle.
+     * Identities and track ids share one space; a handle stays valid until the room disconnects.
+     */
+    private final Map<String, Integer> handles = new HashMap<>();
+    private final List<String> pending = new ArrayList<>();
+    private int firstPending;
+
+    int handle(String value) {
+        Integer handle = handles.get(value);
+        if (handle == null) {
+            handle = handles.size();
+            handles.put(value, handle);
+            if (pending.isEmpty()) {
+                firstPending = handle;
+            }
+            pending.add(value);
+        }
+        return handle;
+    }
+
+    boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /*
+     * Newly assigned handles since the last call, as {first, values}: values[i] is the string
+     * for handle first + i.
+     */
+    WritableMap drainPending() {
+        WritableArray values = EventPayloads.createArray();
+        for (String value : pending) {
+            values.pushString(value);
+        }
+        WritableMap event = EventPayloads.createMap();
+        event.putInt("first", firstPending);
+        event.putArray("values", values);
+        pending.clear();
+        return event;
+    }
+
+    void clear() {
+        handles.clear();
+        pending.clear();
+    }
+}
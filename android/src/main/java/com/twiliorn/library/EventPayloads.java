@@ -0,0 +1,97 @@
+/**
+ * Creates the maps and arrays carried by the view's events. They are native
+ * backed on a device; a harness running without the React Native libraries
+ * swaps in a JVM-only factory.
+ */
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+
+final class EventPayloads {
+    interface Factory {
+        WritableMap createMap();
+
+        WritableArray createArray();
+    }
+
+    static final Factory NATIVE = new Factory() {
+        @Override
+        public WritableMap createMap() {
+            return new WritableNativeMap();
+        }
+
+        @Override
+        public WritableArray createArray() {
+            return new WritableNativeArray();
+        }
+    };
+
+    private static volatile Factory factory = NATIVE;
+
+    private EventPayloads() {
+    }
+
+    /*
+     * Pass null to restore the native factory.
+     */
+    static void setFactory(@Nullable Factory payloadFactory) {
+        factory = payloadFactory != null ? payloadFactory : NATIVE;
+    }
+
+    static WritableMap createMap() {
+        return factory.createMap();
+    }
+
+    static WritableArray createArray() {
+        return factory.createArray();
+    }
+
+    /*
+     * Payload of the participant connected and disconnected events: {participant}.
+     */
+    static WritableMap participantEvent(String identity) {
+        WritableMap event = createMap();
+        event.putString("participant", identity);
+        return event;
+    }
+
+    /*
+     * The same payload in the compact schema, carrying the participant's handle.
+     */
+    static WritableMap participantEvent(int participantHandle) {
+        WritableMap event = createMap();
+        event.putInt("participant", participantHandle);
+        return event;
+    }
+
+    /*
+     * Payload of the participant video track events: {participant: {identity}, track: {trackId}}.
+     */
+    static WritableMap participantVideoEvent(String identity, String trackId) {
+        WritableMap participantMap = createMap();
+        participantMap.putString("identity", identity);
+
+        WritableMap trackMap = createMap();
+        trackMap.putString("trackId", trackId);
+
+        WritableMap event = createMap();
+        event.putMap("participant", participantMap);
+        event.putMap("track", trackMap);
+        return event;
+    }
+
+    /*
+     * The same payload in the compact schema, carrying handles: {participant, track}.
+     */
+    static WritableMap participantVideoEvent(int participantHandle, int trackHandle) {
+        WritableMap event = createMap();
+        event.putInt("participant", participantHandle);
+        event.putInt("track", trackHandle);
+        return event;
+    }
+}
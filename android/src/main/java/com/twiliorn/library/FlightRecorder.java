@@ -0,0 +1,209 @@
+/**
+ * Crash-surviving record of what happened during recent calls.
+ * <p>
+ * Fixed-size binary records are appended to a ring in a memory-mapped file,
+ * so whatever was written before the process died is still there on the next
+ * start and can be exported from JS.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.os.AsyncTask;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+final class FlightRecorder {
+    /*
+     * Record types. Identities and track ids are stored as their String hash codes so a record
+     * never needs more than its fixed slot.
+     */
+    static final short SESSION_START = 1;
+    static final short ROOM_CONNECTED = 2;          // a: participants, b: room name hash
+    static final short ROOM_CONNECT_FAILURE = 3;    // a: error code
+    static final short ROOM_DISCONNECTED = 4;       // a: error code, 0 if none
+    static final short PARTICIPANT_CONNECTED = 5;   // a: identity hash
+    static final short PARTICIPANT_DISCONNECTED = 6;// a: identity hash
+    static final short VIDEO_TRACK_ADDED = 7;       // a: identity hash, b: track id hash
+    static final short VIDEO_TRACK_REMOVED = 8;     // a: identity hash, b: track id hash
+    static final short STATS_SAMPLE = 9;            // a: loss % << 16 | round trip ms, b: audio send kbps, c: video send kbps
+    static final short CAPTURE_PROFILE = 10;        // a: governor stage, b: width << 16 | height, c: fps
+    static final short BITRATE_LIMITS = 11;         // a: max audio kbps, b: max video kbps
+    static final short AUDIO_ONLY = 12;             // a: 1 entered, 0 left
+    static final short CAMERA_SWITCHED = 13;        // a: latency ms
+
+    private static final String[] TYPE_NAMES = {
+            null,
+            "sessionStart",
+            "roomConnected",
+            "roomConnectFailure",
+            "roomDisconnected",
+            "participantConnected",
+            "participantDisconnected",
+            "videoTrackAdded",
+            "videoTrackRemoved",
+            "statsSample",
+            "captureProfile",
+            "bitrateLimits",
+            "audioOnly",
+            "cameraSwitched"
+    };
+
+    private static final String TAG = "FlightRecorder";
+    private static final String FILE_NAME = "twilio-video-flight-recorder.bin";
+    private static final int MAGIC = 0x54564652;
+    private static final int VERSION = 1;
+
+    /*
+     * Header: magic (int), version (int), capacity (int), padding (int), records written (long).
+     * Record: time ms (long), type (short), padding (short), a (int), b (long), c (long).
+     */
+    private static final int HEADER_SIZE = 24;
+    private static final int WRITTEN_OFFSET = 16;
+    private static final int RECORD_SIZE = 32;
+    private static final int CAPACITY = 8192;
+
+    /*
+     * Published only once the file is mapped and the session start is written, so record() never
+     * sees a half-opened ring. written is volatile so read() on another thread sees the latest
+     * count.
+     */
+    private static volatile MappedByteBuffer buffer;
+    private static volatile long written;
+
+    private FlightRecorder() {
+    }
+
+    /*
+     * Mapping, and on first use zeroing, the file is disk work, so it stays off the main thread.
+     * Records made before it completes are dropped.
+     */
+    static void openInBackground(Context context) {
+        final Context applicationContext = context.getApplicationContext();
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                open(applicationContext);
+            }
+        });
+    }
+
+    /*
+     * Maps the ring file, creating it if needed, and marks the start of a session. Safe to call
+     * more than once.
+     */
+    @WorkerThread
+    static synchronized void open(Context context) {
+        if (buffer != null) {
+            return;
+        }
+        File file = new File(context.getApplicationContext().getFilesDir(), FILE_NAME);
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            MappedByteBuffer mapped = randomAccessFile.getChannel().map(
+                    FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) CAPACITY * RECORD_SIZE);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION || mapped.getInt(8) != CAPACITY) {
+                for (int i = 0; i < HEADER_SIZE + CAPACITY * RECORD_SIZE; i += 8) {
+                    mapped.putLong(i, 0);
+                }
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, VERSION);
+                mapped.putInt(8, CAPACITY);
+            }
+            written = mapped.getLong(WRITTEN_OFFSET);
+            write(mapped, SESSION_START, 0, 0, 0);
+            buffer = mapped;
+        } catch (IOException e) {
+            Log.w(TAG, "Flight recorder unavailable", e);
+            return;
+        } finally {
+            // The mapping stays valid after the file is closed.
+            if (randomAccessFile != null) {
+                try {
+                    randomAccessFile.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /*
+     * Writes straight into the mapped file without allocating or locking. Records are written
+     * from the main thread only, and are dropped until the file is open.
+     */
+    static void record(short type, int a, long b, long c) {
+        MappedByteBuffer buffer = FlightRecorder.buffer;
+        if (buffer == null) {
+            return;
+        }
+        write(buffer, type, a, b, c);
+    }
+
+    private static void write(MappedByteBuffer buffer, short type, int a, long b, long c) {
+        int offset = HEADER_SIZE + (int) (written % CAPACITY) * RECORD_SIZE;
+        buffer.putLong(offset, System.currentTimeMillis());
+        buffer.putShort(offset + 8, type);
+        buffer.putInt(offset + 12, a);
+        buffer.putLong(offset + 16, b);
+        buffer.putLong(offset + 24, c);
+        written++;
+        buffer.putLong(WRITTEN_OFFSET, written);
+    }
+
+    static int hash(String value) {
+        return value != null ? value.hashCode() : 0;
+    }
+
+    /*
+     * Records from the last given number of minutes, oldest first. Includes records written
+     * before the process last died.
+     */
+    @WorkerThread
+    static synchronized WritableArray read(Context context, double minutes) {
+        open(context);
+        WritableArray records = EventPayloads.createArray();
+        if (buffer == null) {
+            return records;
+        }
+
+        long since = System.currentTimeMillis() - (long) (minutes * 60000);
+        /*
+         * The main thread keeps writing while this runs. Slot i is overwritten by record
+         * i + CAPACITY, so each slot is copied out first and then checked against the current
+         * count, seqlock-style: a slot that has been, or is being, overwritten since is dropped
+         * rather than exported torn or out of order.
+         */
+        long end = written;
+        for (long i = Math.max(0, end - CAPACITY + 1); i < end; i++) {
+            int offset = HEADER_SIZE + (int) (i % CAPACITY) * RECORD_SIZE;
+            long time = buffer.getLong(offset);
+            short type = buffer.getShort(offset + 8);
+            int a = buffer.getInt(offset + 12);
+            long b = buffer.getLong(offset + 16);
+            long c = buffer.getLong(offset + 24);
+            if (i <= written - CAPACITY) {
+                continue;
+            }
+            if (time < since || type <= 0 || type >= TYPE_NAMES.length) {
+                continue;
+            }
+            WritableMap record = EventPayloads.createMap();
+            record.putDouble("time", time);
+            record.putString("type", TYPE_NAMES[type]);
+            record.putInt("a", a);
+            record.putDouble("b", b);
+            record.putDouble("c", c);
+            records.pushMap(record);
+        }
+        return records;
+    }
+}
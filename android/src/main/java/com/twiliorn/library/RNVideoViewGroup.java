@@ -8,6 +8,7 @@ package com.twiliorn.library;
 
 import android.content.Context;
 import android.graphics.Point;
+import android.graphics.Rect;
 import android.view.ViewGroup;
 
 import com.twilio.video.VideoRenderer;
@@ -18,9 +19,11 @@ import org.webrtc.RendererCommon;
 
 public class RNVideoViewGroup extends ViewGroup {
     private VideoView surfaceViewRenderer = null;
+    private final TileRenderer renderer;
     private int videoWidth = 0;
     private int videoHeight = 0;
     private final Object layoutSync = new Object();
+    private final Rect surfaceBounds = new Rect();
     private RendererCommon.ScalingType scalingType = RendererCommon.ScalingType.SCALE_ASPECT_FILL;
 
 
@@ -30,6 +33,7 @@ public class RNVideoViewGroup extends ViewGroup {
         surfaceViewRenderer = new VideoView(context);
         surfaceViewRenderer.setVideoScaleType(VideoScaleType.ASPECT_FILL);
         addView(surfaceViewRenderer);
+        renderer = new TileRenderer(this, surfaceViewRenderer);
         surfaceViewRenderer.setListener(
                 new VideoRenderer.Listener() {
                     @Override
@@ -53,24 +57,82 @@ public class RNVideoViewGroup extends ViewGroup {
         return surfaceViewRenderer;
     }
 
+    /*
+     * The renderer remote tracks should be attached to; it forwards frames to the VideoView.
+     */
+    public VideoRenderer getRenderer() {
+        return renderer;
+    }
+
     public void setScalingType(RendererCommon.ScalingType scalingType) {
         this.scalingType = scalingType;
+        switch (scalingType) {
+            case SCALE_ASPECT_FIT:
+                surfaceViewRenderer.setVideoScaleType(VideoScaleType.ASPECT_FIT);
+                break;
+            case SCALE_ASPECT_BALANCED:
+                surfaceViewRenderer.setVideoScaleType(VideoScaleType.ASPECT_BALANCED);
+                break;
+            default:
+                surfaceViewRenderer.setVideoScaleType(VideoScaleType.ASPECT_FILL);
+                break;
+        }
+        requestLayout();
+    }
+
+    /*
+     * Hiding the VideoView releases its surface; the group itself stays in place as the
+     * placeholder until video is enabled again.
+     */
+    public void setVideoEnabled(boolean enabled) {
+        surfaceViewRenderer.setVisibility(enabled ? VISIBLE : GONE);
+    }
+
+    /*
+     * Maps the scalingType prop value ("fit", "fill" or "balanced") onto a scaling type.
+     */
+    public void setScalingType(String scalingType) {
+        if ("fit".equals(scalingType)) {
+            setScalingType(RendererCommon.ScalingType.SCALE_ASPECT_FIT);
+        } else if ("balanced".equals(scalingType)) {
+            setScalingType(RendererCommon.ScalingType.SCALE_ASPECT_BALANCED);
+        } else {
+            setScalingType(RendererCommon.ScalingType.SCALE_ASPECT_FILL);
+        }
     }
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
-        int height = b - t;
-        int width = r - l;
+        int videoHeight;
+        int videoWidth;
+        synchronized (layoutSync) {
+            videoHeight = this.videoHeight;
+            videoWidth = this.videoWidth;
+        }
+        surfaceBounds(scalingType, videoWidth, videoHeight, r - l, b - t, surfaceBounds);
+        surfaceViewRenderer.layout(surfaceBounds.left, surfaceBounds.top,
+                surfaceBounds.right, surfaceBounds.bottom);
+    }
+
+    /*
+     * Bounds of the VideoView within a group of width x height showing a videoWidth x
+     * videoHeight video, written to out.
+     */
+    static void surfaceBounds(RendererCommon.ScalingType scalingType,
+                              int videoWidth,
+                              int videoHeight,
+                              int width,
+                              int height,
+                              Rect out) {
         if (height == 0 || width == 0) {
-            l = t = r = b = 0;
+            out.set(0, 0, 0, 0);
+        } else if (scalingType == RendererCommon.ScalingType.SCALE_ASPECT_FILL) {
+            /*
+             * The renderer crops to fill its own surface, so the surface only needs to cover
+             * the visible bounds rather than the scaled-up video.
+             */
+            out.set(0, 0, width, height);
         } else {
-            int videoHeight;
-            int videoWidth;
-            synchronized (layoutSync) {
-                videoHeight = this.videoHeight;
-                videoWidth = this.videoWidth;
-            }
-
             if (videoHeight == 0 || videoWidth == 0) {
                 // These are Twilio defaults.
                 videoHeight = 480;
@@ -78,17 +140,15 @@ public class RNVideoViewGroup extends ViewGroup {
             }
 
             Point displaySize = RendererCommon.getDisplaySize(
-                    this.scalingType,
+                    scalingType,
                     videoWidth / (float) videoHeight,
                     width,
                     height
             );
 
-            l = (width - displaySize.x) / 2;
-            t = (height - displaySize.y) / 2;
-            r = l + displaySize.x;
-            b = t + displaySize.y;
+            int l = (width - displaySize.x) / 2;
+            int t = (height - displaySize.y) / 2;
+            out.set(l, t, l + displaySize.x, t + displaySize.y);
         }
-        surfaceViewRenderer.layout(l, t, r, b);
     }
 }
@@ -0,0 +1,21 @@
+/**
+ * A remote audio track of a {@link RoomParticipant}.
+ */
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.twilio.video.AudioTrack;
+
+public interface RoomAudioTrack {
+    String getTrackId();
+
+    boolean isEnabled();
+
+    /*
+     * The Video SDK track behind this one, for native code such as audio processing that needs
+     * more than the library wraps. Null when the track is not backed by the SDK.
+     */
+    @Nullable
+    AudioTrack getSdkTrack();
+}
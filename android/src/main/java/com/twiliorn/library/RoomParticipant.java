@@ -0,0 +1,42 @@
+/**
+ * A remote participant of a {@link RoomSession}.
+ */
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.twilio.video.Participant;
+
+import java.util.List;
+
+public interface RoomParticipant {
+    String getIdentity();
+
+    List<RoomVideoTrack> getVideoTracks();
+
+    void setListener(@Nullable Listener listener);
+
+    /*
+     * The Video SDK participant behind this one, null when it is not backed by the SDK.
+     */
+    @Nullable
+    Participant getSdkParticipant();
+
+    interface Listener {
+        void onAudioTrackAdded(RoomParticipant participant, RoomAudioTrack audioTrack);
+
+        void onAudioTrackRemoved(RoomParticipant participant, RoomAudioTrack audioTrack);
+
+        void onVideoTrackAdded(RoomParticipant participant, RoomVideoTrack videoTrack);
+
+        void onVideoTrackRemoved(RoomParticipant participant, RoomVideoTrack videoTrack);
+
+        void onAudioTrackEnabled(RoomParticipant participant, RoomAudioTrack audioTrack);
+
+        void onAudioTrackDisabled(RoomParticipant participant, RoomAudioTrack audioTrack);
+
+        void onVideoTrackEnabled(RoomParticipant participant, RoomVideoTrack videoTrack);
+
+        void onVideoTrackDisabled(RoomParticipant participant, RoomVideoTrack videoTrack);
+    }
+}
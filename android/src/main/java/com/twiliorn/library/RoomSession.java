@@ -0,0 +1,55 @@
+/**
+ * The parts of a Twilio Room the library uses, so the view can run against a
+ * Room from the Video SDK or against an in-process fake.
+ */
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.twilio.video.LocalVideoTrack;
+import com.twilio.video.Room;
+import com.twilio.video.RoomState;
+import com.twilio.video.StatsListener;
+import com.twilio.video.TwilioException;
+
+import java.util.List;
+
+public interface RoomSession {
+    String getName();
+
+    RoomState getState();
+
+    /*
+     * Identity of the local participant, null until connected.
+     */
+    @Nullable
+    String getLocalIdentity();
+
+    List<RoomParticipant> getParticipants();
+
+    void publishVideoTrack(LocalVideoTrack videoTrack);
+
+    void unpublishVideoTrack(LocalVideoTrack videoTrack);
+
+    void getStats(StatsListener statsListener);
+
+    void disconnect();
+
+    /*
+     * The Video SDK Room behind this session, null when it is not backed by the SDK.
+     */
+    @Nullable
+    Room getSdkRoom();
+
+    interface Listener {
+        void onConnected(RoomSession room);
+
+        void onConnectFailure(RoomSession room, TwilioException e);
+
+        void onDisconnected(RoomSession room, @Nullable TwilioException e);
+
+        void onParticipantConnected(RoomSession room, RoomParticipant participant);
+
+        void onParticipantDisconnected(RoomSession room, RoomParticipant participant);
+    }
+}
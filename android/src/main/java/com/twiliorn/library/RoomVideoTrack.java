@@ -0,0 +1,29 @@
+/**
+ * A remote video track of a {@link RoomParticipant}.
+ */
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.twilio.video.VideoRenderer;
+import com.twilio.video.VideoTrack;
+
+import java.util.List;
+
+public interface RoomVideoTrack {
+    String getTrackId();
+
+    boolean isEnabled();
+
+    void addRenderer(VideoRenderer renderer);
+
+    void removeRenderer(VideoRenderer renderer);
+
+    List<VideoRenderer> getRenderers();
+
+    /*
+     * The Video SDK track behind this one, null when it is not backed by the SDK.
+     */
+    @Nullable
+    VideoTrack getSdkTrack();
+}
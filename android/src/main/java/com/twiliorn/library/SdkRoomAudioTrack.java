@@ -0,0 +1,29 @@
+/**
+ * {@link RoomAudioTrack} backed by an AudioTrack from the Video SDK.
+ */
+package com.twiliorn.library;
+
+import com.twilio.video.AudioTrack;
+
+final class SdkRoomAudioTrack implements RoomAudioTrack {
+    private final AudioTrack audioTrack;
+
+    SdkRoomAudioTrack(AudioTrack audioTrack) {
+        this.audioTrack = audioTrack;
+    }
+
+    @Override
+    public String getTrackId() {
+        return audioTrack.getTrackId();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return audioTrack.isEnabled();
+    }
+
+    @Override
+    public AudioTrack getSdkTrack() {
+        return audioTrack;
+    }
+}
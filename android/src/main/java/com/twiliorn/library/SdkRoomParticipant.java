@@ -0,0 +1,114 @@
+/**
+ * {@link RoomParticipant} backed by a Participant from the Video SDK.
+ */
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.twilio.video.AudioTrack;
+import com.twilio.video.Participant;
+import com.twilio.video.VideoTrack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class SdkRoomParticipant implements RoomParticipant {
+    private final Participant participant;
+    private final Map<VideoTrack, SdkRoomVideoTrack> videoTracks = new HashMap<>();
+    private final Map<AudioTrack, SdkRoomAudioTrack> audioTracks = new HashMap<>();
+
+    SdkRoomParticipant(Participant participant) {
+        this.participant = participant;
+    }
+
+    private SdkRoomVideoTrack wrap(VideoTrack videoTrack) {
+        SdkRoomVideoTrack wrapped = videoTracks.get(videoTrack);
+        if (wrapped == null) {
+            wrapped = new SdkRoomVideoTrack(videoTrack);
+            videoTracks.put(videoTrack, wrapped);
+        }
+        return wrapped;
+    }
+
+    private SdkRoomAudioTrack wrap(AudioTrack audioTrack) {
+        SdkRoomAudioTrack wrapped = audioTracks.get(audioTrack);
+        if (wrapped == null) {
+            wrapped = new SdkRoomAudioTrack(audioTrack);
+            audioTracks.put(audioTrack, wrapped);
+        }
+        return wrapped;
+    }
+
+    @Override
+    public String getIdentity() {
+        return participant.getIdentity();
+    }
+
+    @Override
+    public List<RoomVideoTrack> getVideoTracks() {
+        List<VideoTrack> sdkTracks = participant.getVideoTracks();
+        List<RoomVideoTrack> result = new ArrayList<>(sdkTracks.size());
+        for (VideoTrack videoTrack : sdkTracks) {
+            result.add(wrap(videoTrack));
+        }
+        return result;
+    }
+
+    @Override
+    public void setListener(@Nullable final Listener listener) {
+        if (listener == null) {
+            participant.setListener(null);
+            return;
+        }
+        participant.setListener(new Participant.Listener() {
+            @Override
+            public void onAudioTrackAdded(Participant participant, AudioTrack audioTrack) {
+                listener.onAudioTrackAdded(SdkRoomParticipant.this, wrap(audioTrack));
+            }
+
+            @Override
+            public void onAudioTrackRemoved(Participant participant, AudioTrack audioTrack) {
+                listener.onAudioTrackRemoved(SdkRoomParticipant.this, wrap(audioTrack));
+                audioTracks.remove(audioTrack);
+            }
+
+            @Override
+            public void onVideoTrackAdded(Participant participant, VideoTrack videoTrack) {
+                listener.onVideoTrackAdded(SdkRoomParticipant.this, wrap(videoTrack));
+            }
+
+            @Override
+            public void onVideoTrackRemoved(Participant participant, VideoTrack videoTrack) {
+                listener.onVideoTrackRemoved(SdkRoomParticipant.this, wrap(videoTrack));
+                videoTracks.remove(videoTrack);
+            }
+
+            @Override
+            public void onAudioTrackEnabled(Participant participant, AudioTrack audioTrack) {
+                listener.onAudioTrackEnabled(SdkRoomParticipant.this, wrap(audioTrack));
+            }
+
+            @Override
+            public void onAudioTrackDisabled(Participant participant, AudioTrack audioTrack) {
+                listener.onAudioTrackDisabled(SdkRoomParticipant.this, wrap(audioTrack));
+            }
+
+            @Override
+            public void onVideoTrackEnabled(Participant participant, VideoTrack videoTrack) {
+                listener.onVideoTrackEnabled(SdkRoomParticipant.this, wrap(videoTrack));
+            }
+
+            @Override
+            public void onVideoTrackDisabled(Participant participant, VideoTrack videoTrack) {
+                listener.onVideoTrackDisabled(SdkRoomParticipant.this, wrap(videoTrack));
+            }
+        });
+    }
+
+    @Override
+    public Participant getSdkParticipant() {
+        return participant;
+    }
+}
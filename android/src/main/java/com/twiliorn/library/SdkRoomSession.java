@@ -0,0 +1,146 @@
+/**
+ * {@link RoomSession} backed by a Room from the Video SDK.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+
+import com.twilio.video.ConnectOptions;
+import com.twilio.video.LocalParticipant;
+import com.twilio.video.LocalVideoTrack;
+import com.twilio.video.Participant;
+import com.twilio.video.Room;
+import com.twilio.video.RoomState;
+import com.twilio.video.StatsListener;
+import com.twilio.video.TwilioException;
+import com.twilio.video.Video;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class SdkRoomSession implements RoomSession {
+    private Room room;
+    private String localIdentity;
+
+    /*
+     * One wrapper per SDK participant for as long as it is in the Room, so listeners and
+     * callbacks always see the same object.
+     */
+    private final Map<Participant, SdkRoomParticipant> participants = new HashMap<>();
+
+    private SdkRoomSession() {
+    }
+
+    static SdkRoomSession connect(Context context, ConnectOptions connectOptions, final Listener listener) {
+        final SdkRoomSession session = new SdkRoomSession();
+        session.room = Video.connect(context, connectOptions, new Room.Listener() {
+            @Override
+            public void onConnected(Room room) {
+                session.room = room;
+                LocalParticipant localParticipant = room.getLocalParticipant();
+                session.localIdentity = localParticipant != null ? localParticipant.getIdentity() : null;
+                listener.onConnected(session);
+            }
+
+            @Override
+            public void onConnectFailure(Room room, TwilioException e) {
+                listener.onConnectFailure(session, e);
+            }
+
+            @Override
+            public void onDisconnected(Room room, TwilioException e) {
+                listener.onDisconnected(session, e);
+                session.participants.clear();
+            }
+
+            @Override
+            public void onParticipantConnected(Room room, Participant participant) {
+                listener.onParticipantConnected(session, session.wrap(participant));
+            }
+
+            @Override
+            public void onParticipantDisconnected(Room room, Participant participant) {
+                listener.onParticipantDisconnected(session, session.wrap(participant));
+                session.participants.remove(participant);
+            }
+
+            @Override
+            public void onRecordingStarted(Room room) {
+            }
+
+            @Override
+            public void onRecordingStopped(Room room) {
+            }
+        });
+        return session;
+    }
+
+    private SdkRoomParticipant wrap(Participant participant) {
+        SdkRoomParticipant wrapped = participants.get(participant);
+        if (wrapped == null) {
+            wrapped = new SdkRoomParticipant(participant);
+            participants.put(participant, wrapped);
+        }
+        return wrapped;
+    }
+
+    @Override
+    public String getName() {
+        return room.getName();
+    }
+
+    @Override
+    public RoomState getState() {
+        return room.getState();
+    }
+
+    @Nullable
+    @Override
+    public String getLocalIdentity() {
+        return localIdentity;
+    }
+
+    @Override
+    public List<RoomParticipant> getParticipants() {
+        List<Participant> sdkParticipants = room.getParticipants();
+        List<RoomParticipant> result = new ArrayList<>(sdkParticipants.size());
+        for (Participant participant : sdkParticipants) {
+            result.add(wrap(participant));
+        }
+        return result;
+    }
+
+    @Override
+    public void publishVideoTrack(LocalVideoTrack videoTrack) {
+        LocalParticipant localParticipant = room.getLocalParticipant();
+        if (localParticipant != null) {
+            localParticipant.addVideoTrack(videoTrack);
+        }
+    }
+
+    @Override
+    public void unpublishVideoTrack(LocalVideoTrack videoTrack) {
+        LocalParticipant localParticipant = room.getLocalParticipant();
+        if (localParticipant != null) {
+            localParticipant.removeVideoTrack(videoTrack);
+        }
+    }
+
+    @Override
+    public void getStats(StatsListener statsListener) {
+        room.getStats(statsListener);
+    }
+
+    @Override
+    public void disconnect() {
+        room.disconnect();
+    }
+
+    @Override
+    public Room getSdkRoom() {
+        return room;
+    }
+}
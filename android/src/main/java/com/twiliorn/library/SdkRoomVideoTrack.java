@@ -0,0 +1,47 @@
+/**
+ * {@link RoomVideoTrack} backed by a VideoTrack from the Video SDK.
+ */
+package com.twiliorn.library;
+
+import com.twilio.video.VideoRenderer;
+import com.twilio.video.VideoTrack;
+
+import java.util.List;
+
+final class SdkRoomVideoTrack implements RoomVideoTrack {
+    private final VideoTrack videoTrack;
+
+    SdkRoomVideoTrack(VideoTrack videoTrack) {
+        this.videoTrack = videoTrack;
+    }
+
+    @Override
+    public String getTrackId() {
+        return videoTrack.getTrackId();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return videoTrack.isEnabled();
+    }
+
+    @Override
+    public void addRenderer(VideoRenderer renderer) {
+        videoTrack.addRenderer(renderer);
+    }
+
+    @Override
+    public void removeRenderer(VideoRenderer renderer) {
+        videoTrack.removeRenderer(renderer);
+    }
+
+    @Override
+    public List<VideoRenderer> getRenderers() {
+        return videoTrack.getRenderers();
+    }
+
+    @Override
+    public VideoTrack getSdkTrack() {
+        return videoTrack;
+    }
+}
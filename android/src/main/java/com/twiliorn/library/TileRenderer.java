@@ -0,0 +1,175 @@
+/**
+ * Renderer placed between a remote video track and the VideoView of a tile,
+ * so frames can be dropped before they reach the view and frame timing can
+ * be measured per tile.
+ */
+package com.twiliorn.library;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.twilio.video.I420Frame;
+import com.twilio.video.VideoRenderer;
+
+class TileRenderer implements VideoRenderer {
+    /*
+     * Render rate caps shared by every remote tile, 0 meaning uncapped: one set by the capture
+     * governor, one while in picture-in-picture. The lower of the two applies.
+     */
+    private static volatile int maxFps;
+    private static volatile int pictureInPictureMaxFps;
+
+    /*
+     * Upper bounds, in ms, of the inter-frame interval histogram buckets; the last bucket
+     * collects everything above the last bound.
+     */
+    private static final int[] INTERVAL_BUCKETS_MS = {20, 40, 70, 100, 200, 500};
+    private static final long FREEZE_THRESHOLD_NANOS = 500 * 1000000L;
+
+    private final RNVideoViewGroup tile;
+    private final VideoRenderer delegate;
+    private long lastRenderedNanos;
+
+    /*
+     * Frame timing, guarded by this. Only primitives are touched per frame.
+     */
+    private String trackId;
+    private long lastFrameNanos;
+    private long framesDelivered;
+    private long framesRendered;
+    private long freezeCount;
+    private long freezeTotalNanos;
+    private long maxIntervalNanos;
+    private final long[] intervalHistogram = new long[INTERVAL_BUCKETS_MS.length + 1];
+    private long snapshotNanos;
+    private long snapshotFramesDelivered;
+    private long snapshotFramesRendered;
+
+    TileRenderer(RNVideoViewGroup tile, VideoRenderer delegate) {
+        this.tile = tile;
+        this.delegate = delegate;
+    }
+
+    RNVideoViewGroup getTile() {
+        return tile;
+    }
+
+    static void setMaxFps(int fps) {
+        maxFps = Math.max(fps, 0);
+    }
+
+    static void setPictureInPictureMaxFps(int fps) {
+        pictureInPictureMaxFps = Math.max(fps, 0);
+    }
+
+    private static int effectiveMaxFps() {
+        int governor = maxFps;
+        int pictureInPicture = pictureInPictureMaxFps;
+        if (governor == 0 || pictureInPicture == 0) {
+            return Math.max(governor, pictureInPicture);
+        }
+        return Math.min(governor, pictureInPicture);
+    }
+
+    synchronized void setTrackId(String trackId) {
+        if (trackId != null && trackId.equals(this.trackId)) {
+            return;
+        }
+        this.trackId = trackId;
+        reset();
+    }
+
+    synchronized String getTrackId() {
+        return trackId;
+    }
+
+    @Override
+    public void renderFrame(I420Frame frame) {
+        int cap = effectiveMaxFps();
+        long now = System.nanoTime();
+        boolean render = cap <= 0 || lastRenderedNanos == 0 || now - lastRenderedNanos >= 1000000000L / cap;
+        recordFrame(now, render);
+        if (!render) {
+            frame.release();
+            return;
+        }
+        lastRenderedNanos = now;
+        delegate.renderFrame(frame);
+    }
+
+    private synchronized void recordFrame(long now, boolean rendered) {
+        framesDelivered++;
+        if (rendered) {
+            framesRendered++;
+        }
+        if (lastFrameNanos != 0) {
+            long interval = now - lastFrameNanos;
+            int intervalMs = (int) (interval / 1000000);
+            int bucket = 0;
+            while (bucket < INTERVAL_BUCKETS_MS.length && intervalMs >= INTERVAL_BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            intervalHistogram[bucket]++;
+            if (interval > maxIntervalNanos) {
+                maxIntervalNanos = interval;
+            }
+            if (interval >= FREEZE_THRESHOLD_NANOS) {
+                freezeCount++;
+                freezeTotalNanos += interval;
+            }
+        }
+        lastFrameNanos = now;
+    }
+
+    private void reset() {
+        lastFrameNanos = 0;
+        framesDelivered = 0;
+        framesRendered = 0;
+        freezeCount = 0;
+        freezeTotalNanos = 0;
+        maxIntervalNanos = 0;
+        for (int i = 0; i < intervalHistogram.length; i++) {
+            intervalHistogram[i] = 0;
+        }
+        snapshotNanos = System.nanoTime();
+        snapshotFramesDelivered = 0;
+        snapshotFramesRendered = 0;
+    }
+
+    /*
+     * Counters are cumulative since the tile was bound to its track; fps values cover the time
+     * since the previous summary.
+     */
+    synchronized WritableMap summarize() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - snapshotNanos) / 1e9;
+
+        WritableMap summary = EventPayloads.createMap();
+        summary.putString("trackId", trackId);
+        summary.putDouble("deliveredFps", elapsedSeconds > 0
+                ? (framesDelivered - snapshotFramesDelivered) / elapsedSeconds : 0);
+        summary.putDouble("renderedFps", elapsedSeconds > 0
+                ? (framesRendered - snapshotFramesRendered) / elapsedSeconds : 0);
+        summary.putDouble("framesDelivered", framesDelivered);
+        summary.putDouble("framesRendered", framesRendered);
+        summary.putDouble("freezeCount", freezeCount);
+        summary.putDouble("freezeTotalMs", freezeTotalNanos / 1e6);
+        summary.putDouble("maxIntervalMs", maxIntervalNanos / 1e6);
+        summary.putBoolean("frozen", lastFrameNanos != 0 && now - lastFrameNanos >= FREEZE_THRESHOLD_NANOS);
+
+        WritableArray bounds = EventPayloads.createArray();
+        for (int bound : INTERVAL_BUCKETS_MS) {
+            bounds.pushInt(bound);
+        }
+        WritableArray counts = EventPayloads.createArray();
+        for (long count : intervalHistogram) {
+            counts.pushDouble(count);
+        }
+        summary.putArray("intervalBucketsMs", bounds);
+        summary.putArray("intervalCounts", counts);
+
+        snapshotNanos = now;
+        snapshotFramesDelivered = framesDelivered;
+        snapshotFramesRendered = framesRendered;
+        return summary;
+    }
+}
@@ -0,0 +1,456 @@
+/**
+ * Records the frames of a video track to an MP4 file on the device.
+ * <p>
+ * Frames are copied into a small bounded queue on the rendering thread and
+ * encoded on a thread of their own. When the encoder falls behind, the oldest
+ * queued frame is dropped so rendering and capture are never held up.
+ * <p>
+ * The file keeps the size and rotation of the first frame. Tracks change size
+ * while recording, when the local track is republished at another capture
+ * profile or when WebRTC adapts a remote track's resolution, and those frames
+ * are scaled to the recording size so the file keeps growing.
+ */
+package com.twiliorn.library;
+
+import android.annotation.TargetApi;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaCodecList;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.facebook.react.bridge.WritableMap;
+import com.twilio.video.I420Frame;
+import com.twilio.video.VideoRenderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+class TrackRecorder implements VideoRenderer {
+    interface Listener {
+        void onRecordingStopped(TrackRecorder recorder, @Nullable Exception error);
+    }
+
+    private static final String TAG = "TrackRecorder";
+    private static final String MIME_TYPE = "video/avc";
+    private static final int QUEUE_CAPACITY = 4;
+    private static final int BIT_RATE = 1000000;
+    private static final int FRAME_RATE = 15;
+    private static final int I_FRAME_INTERVAL_SECONDS = 2;
+    private static final long TIMEOUT_US = 10000;
+    private static final int MAX_END_OF_STREAM_WAITS = 100;
+
+    @Nullable
+    private final String trackId;
+    private final String path;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /*
+     * Ring of queued frames plus a pool of spare buffers, all guarded by lock. Buffers are reused
+     * for the lifetime of the recording so steady-state recording allocates nothing per frame.
+     */
+    private final Object lock = new Object();
+    private final byte[][] queue = new byte[QUEUE_CAPACITY][];
+    private final long[] queuedAtNanos = new long[QUEUE_CAPACITY];
+    private final ArrayDeque<byte[]> freeBuffers = new ArrayDeque<>(QUEUE_CAPACITY + 1);
+    private int head;
+    private int count;
+    private int width;
+    private int height;
+    private int rotation;
+    private boolean running;
+
+    /*
+     * Input layout of the chosen encoder, 0 until the encoder thread has picked one. Frames are
+     * copied straight into that layout, planar (I420) or semi-planar (NV12).
+     */
+    private int colorFormat;
+
+    private long framesReceived;
+    private long framesEncoded;
+    private long framesDropped;
+    private long framesScaled;
+    private long encodeLatencyTotalNanos;
+    private long encodeLatencyMaxNanos;
+
+    private long startNanos;
+    private final MediaCodec.BufferInfo bufferInfo = new MediaCodec.BufferInfo();
+    private MediaCodec codec;
+    private MediaMuxer muxer;
+    private int muxerTrack = -1;
+
+    TrackRecorder(@Nullable String trackId, String path, Listener listener) {
+        this.trackId = trackId;
+        this.path = path;
+        this.listener = listener;
+    }
+
+    @Nullable
+    String getTrackId() {
+        return trackId;
+    }
+
+    void start() {
+        synchronized (lock) {
+            running = true;
+        }
+        startNanos = System.nanoTime();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                encodeLoop();
+            }
+        }, TAG).start();
+    }
+
+    /*
+     * Returns immediately; queued frames are flushed and the listener is called on the main
+     * thread once the file is finalised.
+     */
+    void stop() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void renderFrame(I420Frame frame) {
+        try {
+            if (!frame.yuvFrame) {
+                // Texture frames would need a GL readback; only byte buffer frames are recorded.
+                return;
+            }
+            synchronized (lock) {
+                if (!running || colorFormat == 0) {
+                    return;
+                }
+                framesReceived++;
+                if (width == 0) {
+                    width = frame.width;
+                    height = frame.height;
+                    rotation = frame.rotationDegree;
+                } else if (frame.width != width || frame.height != height) {
+                    framesScaled++;
+                }
+
+                byte[] buffer;
+                if (count == QUEUE_CAPACITY) {
+                    buffer = queue[head];
+                    queue[head] = null;
+                    head = (head + 1) % QUEUE_CAPACITY;
+                    count--;
+                    framesDropped++;
+                } else {
+                    buffer = freeBuffers.poll();
+                }
+                int size = frameSize(width, height);
+                if (buffer == null || buffer.length != size) {
+                    buffer = new byte[size];
+                }
+                copyI420(frame, buffer, isSemiPlanar(colorFormat));
+
+                int tail = (head + count) % QUEUE_CAPACITY;
+                queue[tail] = buffer;
+                queuedAtNanos[tail] = System.nanoTime();
+                count++;
+                lock.notifyAll();
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    WritableMap getStats() {
+        WritableMap stats = EventPayloads.createMap();
+        synchronized (lock) {
+            stats.putString("trackId", trackId);
+            stats.putString("path", path);
+            stats.putDouble("framesReceived", framesReceived);
+            stats.putDouble("framesEncoded", framesEncoded);
+            stats.putDouble("framesDropped", framesDropped);
+            stats.putDouble("framesScaled", framesScaled);
+            stats.putDouble("averageEncodeLatencyMs", framesEncoded == 0
+                    ? 0 : encodeLatencyTotalNanos / (double) framesEncoded / 1000000);
+            stats.putDouble("maxEncodeLatencyMs", encodeLatencyMaxNanos / 1000000d);
+        }
+        return stats;
+    }
+
+    private static int frameSize(int width, int height) {
+        return width * height + 2 * ((width + 1) / 2) * ((height + 1) / 2);
+    }
+
+    /*
+     * Copies the frame at the recording size without its row padding. Semi-planar output keeps
+     * the Y plane and interleaves U and V into one plane, as NV12 expects.
+     */
+    private void copyI420(I420Frame frame, byte[] out, boolean semiPlanar) {
+        int chromaWidth = (width + 1) / 2;
+        int chromaHeight = (height + 1) / 2;
+        int frameChromaWidth = (frame.width + 1) / 2;
+        int frameChromaHeight = (frame.height + 1) / 2;
+        copyPlane(frame.yuvPlanes[0], frame.yuvStrides[0], frame.width, frame.height,
+                out, 0, 1, width, height);
+        int offset = width * height;
+        if (semiPlanar) {
+            copyPlane(frame.yuvPlanes[1], frame.yuvStrides[1], frameChromaWidth, frameChromaHeight,
+                    out, offset, 2, chromaWidth, chromaHeight);
+            copyPlane(frame.yuvPlanes[2], frame.yuvStrides[2], frameChromaWidth, frameChromaHeight,
+                    out, offset + 1, 2, chromaWidth, chromaHeight);
+        } else {
+            copyPlane(frame.yuvPlanes[1], frame.yuvStrides[1], frameChromaWidth, frameChromaHeight,
+                    out, offset, 1, chromaWidth, chromaHeight);
+            copyPlane(frame.yuvPlanes[2], frame.yuvStrides[2], frameChromaWidth, frameChromaHeight,
+                    out, offset + chromaWidth * chromaHeight, 1, chromaWidth, chromaHeight);
+        }
+    }
+
+    /*
+     * Writes one plane to every pixelStride-th byte of out. A plane of another size is scaled to
+     * planeWidth x planeHeight by nearest neighbour; a plane of the same size is copied row by row.
+     */
+    private static void copyPlane(ByteBuffer source, int stride, int sourceWidth, int sourceHeight,
+                                  byte[] out, int offset, int pixelStride, int planeWidth, int planeHeight) {
+        int position = source.position();
+        boolean sameSize = sourceWidth == planeWidth && sourceHeight == planeHeight;
+        for (int row = 0; row < planeHeight; row++) {
+            int sourceRow = position + (sameSize ? row : row * sourceHeight / planeHeight) * stride;
+            if (sameSize && pixelStride == 1) {
+                source.position(sourceRow);
+                source.get(out, offset, planeWidth);
+                offset += planeWidth;
+                continue;
+            }
+            for (int column = 0; column < planeWidth; column++) {
+                out[offset] = source.get(sourceRow + (sameSize ? column : column * sourceWidth / planeWidth));
+                offset += pixelStride;
+            }
+        }
+        source.position(position);
+    }
+
+    private void encodeLoop() {
+        Exception error = null;
+        try {
+            MediaCodecInfo encoder = selectEncoder();
+            int format = encoder != null ? selectColorFormat(encoder) : 0;
+            if (format == 0) {
+                throw new IOException("No " + MIME_TYPE + " encoder takes YUV420 input");
+            }
+            synchronized (lock) {
+                colorFormat = format;
+                while (running && width == 0) {
+                    lock.wait();
+                }
+                if (width == 0) {
+                    return;
+                }
+            }
+            prepareEncoder(encoder);
+
+            byte[] buffer;
+            long queuedAt;
+            while (true) {
+                synchronized (lock) {
+                    while (running && count == 0) {
+                        lock.wait();
+                    }
+                    if (count == 0) {
+                        break;
+                    }
+                    buffer = queue[head];
+                    queuedAt = queuedAtNanos[head];
+                    queue[head] = null;
+                    head = (head + 1) % QUEUE_CAPACITY;
+                    count--;
+                }
+
+                if (!queueInput(buffer, queuedAt, 0)) {
+                    synchronized (lock) {
+                        framesDropped++;
+                    }
+                }
+                synchronized (lock) {
+                    freeBuffers.offer(buffer);
+                }
+                drainEncoder(false);
+            }
+
+            queueInput(null, System.nanoTime(), MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+            drainEncoder(true);
+        } catch (Exception e) {
+            Log.e(TAG, "Recording to " + path + " failed", e);
+            error = e;
+        } finally {
+            releaseEncoder();
+            synchronized (lock) {
+                running = false;
+                freeBuffers.clear();
+                for (int i = 0; i < QUEUE_CAPACITY; i++) {
+                    queue[i] = null;
+                }
+                count = 0;
+            }
+            final Exception stopError = error;
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    listener.onRecordingStopped(TrackRecorder.this, stopError);
+                }
+            });
+        }
+    }
+
+    /*
+     * First encoder for MIME_TYPE, walking the codec list as CodecCapabilities does.
+     */
+    @SuppressWarnings("deprecation")
+    @Nullable
+    private static MediaCodecInfo selectEncoder() {
+        int count = MediaCodecList.getCodecCount();
+        for (int i = 0; i < count; i++) {
+            MediaCodecInfo info = MediaCodecList.getCodecInfoAt(i);
+            if (!info.isEncoder()) {
+                continue;
+            }
+            for (String type : info.getSupportedTypes()) {
+                if (MIME_TYPE.equalsIgnoreCase(type)) {
+                    return info;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Planar input matches the frames as delivered; semi-planar, which more encoders take,
+     * costs an interleave of the chroma planes per frame. 0 if the encoder takes neither.
+     * The fixed YUV420 formats are deprecated from API 21 in favour of the flexible one, which
+     * needs Image based input.
+     */
+    @SuppressWarnings("deprecation")
+    private static int selectColorFormat(MediaCodecInfo encoder) {
+        int[] colorFormats = encoder.getCapabilitiesForType(MIME_TYPE).colorFormats;
+        boolean semiPlanar = false;
+        for (int colorFormat : colorFormats) {
+            if (colorFormat == MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420Planar) {
+                return colorFormat;
+            }
+            semiPlanar |= colorFormat == MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420SemiPlanar;
+        }
+        return semiPlanar ? MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420SemiPlanar : 0;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean isSemiPlanar(int colorFormat) {
+        return colorFormat == MediaCodecInfo.CodecCapabilities.COLOR_FormatYUV420SemiPlanar;
+    }
+
+    private void prepareEncoder(MediaCodecInfo encoder) throws IOException {
+        int inputColorFormat;
+        int orientation;
+        synchronized (lock) {
+            inputColorFormat = colorFormat;
+            orientation = rotation;
+        }
+        MediaFormat format = MediaFormat.createVideoFormat(MIME_TYPE, width, height);
+        format.setInteger(MediaFormat.KEY_COLOR_FORMAT, inputColorFormat);
+        format.setInteger(MediaFormat.KEY_BIT_RATE, BIT_RATE);
+        format.setInteger(MediaFormat.KEY_FRAME_RATE, FRAME_RATE);
+        format.setInteger(MediaFormat.KEY_I_FRAME_INTERVAL, I_FRAME_INTERVAL_SECONDS);
+
+        codec = MediaCodec.createByCodecName(encoder.getName());
+        codec.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+        codec.start();
+        muxer = new MediaMuxer(path, MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+        // Frames arrive as captured; players apply the rotation from the container.
+        muxer.setOrientationHint(orientation);
+    }
+
+    /*
+     * A frame that finds no free input buffer is dropped rather than waited on.
+     */
+    @SuppressWarnings("deprecation")
+    private boolean queueInput(@Nullable byte[] frame, long queuedAtNanos, int flags) {
+        int index = codec.dequeueInputBuffer(TIMEOUT_US);
+        if (index < 0) {
+            return false;
+        }
+        int size = 0;
+        if (frame != null) {
+            ByteBuffer input = codec.getInputBuffers()[index];
+            input.clear();
+            input.put(frame);
+            size = frame.length;
+        }
+        codec.queueInputBuffer(index, 0, size, (queuedAtNanos - startNanos) / 1000, flags);
+        return true;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void drainEncoder(boolean endOfStream) {
+        int endOfStreamWaits = 0;
+        while (true) {
+            int index = codec.dequeueOutputBuffer(bufferInfo, TIMEOUT_US);
+            if (index == MediaCodec.INFO_TRY_AGAIN_LATER) {
+                if (!endOfStream || ++endOfStreamWaits > MAX_END_OF_STREAM_WAITS) {
+                    return;
+                }
+            } else if (index == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                muxerTrack = muxer.addTrack(codec.getOutputFormat());
+                muxer.start();
+            } else if (index >= 0) {
+                ByteBuffer output = codec.getOutputBuffers()[index];
+                boolean config = (bufferInfo.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+                if (!config && bufferInfo.size > 0 && muxerTrack >= 0) {
+                    output.position(bufferInfo.offset);
+                    output.limit(bufferInfo.offset + bufferInfo.size);
+                    muxer.writeSampleData(muxerTrack, output, bufferInfo);
+
+                    long latency = System.nanoTime() - (startNanos + bufferInfo.presentationTimeUs * 1000);
+                    synchronized (lock) {
+                        framesEncoded++;
+                        encodeLatencyTotalNanos += latency;
+                        encodeLatencyMaxNanos = Math.max(encodeLatencyMaxNanos, latency);
+                    }
+                }
+                codec.releaseOutputBuffer(index, false);
+                if ((bufferInfo.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void releaseEncoder() {
+        if (codec != null) {
+            try {
+                codec.stop();
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "Failed to stop encoder", e);
+            }
+            codec.release();
+            codec = null;
+        }
+        if (muxer != null) {
+            try {
+                if (muxerTrack >= 0) {
+                    muxer.stop();
+                }
+            } catch (IllegalStateException e) {
+                Log.w(TAG, "Failed to finalise " + path, e);
+            }
+            muxer.release();
+            muxer = null;
+        }
+    }
+}
@@ -19,9 +19,32 @@ import java.util.Collections;
 import java.util.List;
 
 public class TwilioPackage implements ReactPackage {
+    private final boolean preloadVideo;
+
+    public TwilioPackage() {
+        this(false);
+    }
+
+    /*
+     * With preloadVideo set, the Video SDK's native libraries are initialised on a background
+     * thread as soon as the React context is created, ahead of the first connect.
+     */
+    public TwilioPackage(boolean preloadVideo) {
+        this.preloadVideo = preloadVideo;
+    }
+
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        return Collections.emptyList();
+        if (preloadVideo) {
+            VideoPreloader.start(reactContext, new VideoPreloader.Callback() {
+                @Override
+                public void onReady(long preloadMs) {
+                }
+            });
+        }
+        return Collections.<NativeModule>singletonList(
+                new TwilioVideoModule(reactContext)
+        );
     }
 
     // Deprecated by RN 0.47
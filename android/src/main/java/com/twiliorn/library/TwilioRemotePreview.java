@@ -27,6 +27,6 @@ public class TwilioRemotePreview extends RNVideoViewGroup {
         Log.i("CustomTwilioVideoView", trackId);
 
 
-        CustomTwilioVideoView.registerPrimaryVideoView(this.getSurfaceViewRenderer(), trackId);
+        CustomTwilioVideoView.registerPrimaryVideoView(this.getRenderer(), trackId);
     }
 }
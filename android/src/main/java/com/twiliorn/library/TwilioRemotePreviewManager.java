@@ -31,12 +31,23 @@ public class TwilioRemotePreviewManager extends SimpleViewManager<TwilioRemotePr
         Log.i("CustomTwilioVideoView", "Initialize Twilio REMOTEEEEEEEEE");
         Log.i("CustomTwilioVideoView", trackId);
         myTrackId = trackId;
-        CustomTwilioVideoView.registerPrimaryVideoView(view.getSurfaceViewRenderer(), trackId);
+        CustomTwilioVideoView.registerPrimaryVideoView(view.getRenderer(), trackId);
     }
 
 
+    @ReactProp(name = "scalingType")
+    public void setScalingType(TwilioRemotePreview view, @Nullable String scalingType) {
+        view.setScalingType(scalingType);
+    }
+
     @Override
     protected TwilioRemotePreview createViewInstance(ThemedReactContext reactContext) {
         return new TwilioRemotePreview(reactContext, myTrackId);
     }
+
+    @Override
+    public void onDropViewInstance(TwilioRemotePreview view) {
+        super.onDropViewInstance(view);
+        CustomTwilioVideoView.unregisterPrimaryVideoView(view.getRenderer());
+    }
 }
@@ -0,0 +1,209 @@
+/**
+ * Fans room, participant and track callbacks out to the view's JS bridge and
+ * to any native {@link TwilioVideoListener}s registered through
+ * {@link #addListener(TwilioVideoListener)}.
+ * <p>
+ * Listeners live in an array that is replaced on add/remove, so dispatching
+ * reads one volatile field and walks it by index without allocating.
+ */
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+import android.util.Log;
+
+import com.twilio.video.TwilioException;
+
+public final class TwilioVideoEvents implements TwilioVideoListener {
+    private static final String TAG = "TwilioVideoEvents";
+
+    /*
+     * Callback ids for dispatch, one per TwilioVideoListener method.
+     */
+    private static final int CONNECTED = 0;
+    private static final int CONNECT_FAILURE = 1;
+    private static final int DISCONNECTED = 2;
+    private static final int PARTICIPANT_CONNECTED = 3;
+    private static final int PARTICIPANT_DISCONNECTED = 4;
+    private static final int VIDEO_TRACK_ADDED = 5;
+    private static final int VIDEO_TRACK_REMOVED = 6;
+    private static final int VIDEO_TRACK_ENABLED = 7;
+    private static final int VIDEO_TRACK_DISABLED = 8;
+    private static final int AUDIO_TRACK_ADDED = 9;
+    private static final int AUDIO_TRACK_REMOVED = 10;
+    private static final int AUDIO_TRACK_ENABLED = 11;
+    private static final int AUDIO_TRACK_DISABLED = 12;
+
+    private static final TwilioVideoListener[] EMPTY = new TwilioVideoListener[0];
+    private static final Object lock = new Object();
+
+    private static volatile TwilioVideoListener[] listeners = EMPTY;
+
+    private final TwilioVideoListener bridge;
+
+    TwilioVideoEvents(TwilioVideoListener bridge) {
+        this.bridge = bridge;
+    }
+
+    public static void addListener(TwilioVideoListener listener) {
+        synchronized (lock) {
+            TwilioVideoListener[] current = listeners;
+            for (TwilioVideoListener l : current) {
+                if (l == listener) {
+                    return;
+                }
+            }
+            TwilioVideoListener[] next = new TwilioVideoListener[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            next[current.length] = listener;
+            listeners = next;
+        }
+    }
+
+    public static void removeListener(TwilioVideoListener listener) {
+        synchronized (lock) {
+            TwilioVideoListener[] current = listeners;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] != listener) {
+                    continue;
+                }
+                if (current.length == 1) {
+                    listeners = EMPTY;
+                    return;
+                }
+                TwilioVideoListener[] next = new TwilioVideoListener[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                listeners = next;
+                return;
+            }
+        }
+    }
+
+    /*
+     * Calls the bridge, then every native listener. A misbehaving native listener must not take
+     * the call or the JS events down with it. Arguments travel as plain references and the
+     * callback as an int so a dispatch allocates nothing.
+     */
+    private void dispatch(int callback, Object a, @Nullable Object b) {
+        deliver(bridge, callback, a, b);
+        TwilioVideoListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            try {
+                deliver(current[i], callback, a, b);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Listener " + current[i] + " threw", e);
+            }
+        }
+    }
+
+    private static void deliver(TwilioVideoListener listener, int callback, Object a, @Nullable Object b) {
+        switch (callback) {
+            case CONNECTED:
+                listener.onConnected((RoomSession) a);
+                break;
+            case CONNECT_FAILURE:
+                listener.onConnectFailure((RoomSession) a, (TwilioException) b);
+                break;
+            case DISCONNECTED:
+                listener.onDisconnected((RoomSession) a, (TwilioException) b);
+                break;
+            case PARTICIPANT_CONNECTED:
+                listener.onParticipantConnected((RoomSession) a, (RoomParticipant) b);
+                break;
+            case PARTICIPANT_DISCONNECTED:
+                listener.onParticipantDisconnected((RoomSession) a, (RoomParticipant) b);
+                break;
+            case VIDEO_TRACK_ADDED:
+                listener.onVideoTrackAdded((RoomParticipant) a, (RoomVideoTrack) b);
+                break;
+            case VIDEO_TRACK_REMOVED:
+                listener.onVideoTrackRemoved((RoomParticipant) a, (RoomVideoTrack) b);
+                break;
+            case VIDEO_TRACK_ENABLED:
+                listener.onVideoTrackEnabled((RoomParticipant) a, (RoomVideoTrack) b);
+                break;
+            case VIDEO_TRACK_DISABLED:
+                listener.onVideoTrackDisabled((RoomParticipant) a, (RoomVideoTrack) b);
+                break;
+            case AUDIO_TRACK_ADDED:
+                listener.onAudioTrackAdded((RoomParticipant) a, (RoomAudioTrack) b);
+                break;
+            case AUDIO_TRACK_REMOVED:
+                listener.onAudioTrackRemoved((RoomParticipant) a, (RoomAudioTrack) b);
+                break;
+            case AUDIO_TRACK_ENABLED:
+                listener.onAudioTrackEnabled((RoomParticipant) a, (RoomAudioTrack) b);
+                break;
+            case AUDIO_TRACK_DISABLED:
+                listener.onAudioTrackDisabled((RoomParticipant) a, (RoomAudioTrack) b);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown callback " + callback);
+        }
+    }
+
+    @Override
+    public void onConnected(RoomSession room) {
+        dispatch(CONNECTED, room, null);
+    }
+
+    @Override
+    public void onConnectFailure(RoomSession room, TwilioException e) {
+        dispatch(CONNECT_FAILURE, room, e);
+    }
+
+    @Override
+    public void onDisconnected(RoomSession room, @Nullable TwilioException e) {
+        dispatch(DISCONNECTED, room, e);
+    }
+
+    @Override
+    public void onParticipantConnected(RoomSession room, RoomParticipant participant) {
+        dispatch(PARTICIPANT_CONNECTED, room, participant);
+    }
+
+    @Override
+    public void onParticipantDisconnected(RoomSession room, RoomParticipant participant) {
+        dispatch(PARTICIPANT_DISCONNECTED, room, participant);
+    }
+
+    @Override
+    public void onVideoTrackAdded(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        dispatch(VIDEO_TRACK_ADDED, participant, videoTrack);
+    }
+
+    @Override
+    public void onVideoTrackRemoved(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        dispatch(VIDEO_TRACK_REMOVED, participant, videoTrack);
+    }
+
+    @Override
+    public void onVideoTrackEnabled(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        dispatch(VIDEO_TRACK_ENABLED, participant, videoTrack);
+    }
+
+    @Override
+    public void onVideoTrackDisabled(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        dispatch(VIDEO_TRACK_DISABLED, participant, videoTrack);
+    }
+
+    @Override
+    public void onAudioTrackAdded(RoomParticipant participant, RoomAudioTrack audioTrack) {
+        dispatch(AUDIO_TRACK_ADDED, participant, audioTrack);
+    }
+
+    @Override
+    public void onAudioTrackRemoved(RoomParticipant participant, RoomAudioTrack audioTrack) {
+        dispatch(AUDIO_TRACK_REMOVED, participant, audioTrack);
+    }
+
+    @Override
+    public void onAudioTrackEnabled(RoomParticipant participant, RoomAudioTrack audioTrack) {
+        dispatch(AUDIO_TRACK_ENABLED, participant, audioTrack);
+    }
+
+    @Override
+    public void onAudioTrackDisabled(RoomParticipant participant, RoomAudioTrack audioTrack) {
+        dispatch(AUDIO_TRACK_DISABLED, participant, audioTrack);
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Typed room, participant and track callbacks for native code that wants to
+ * observe the call without going through the React Native bridge.
+ * <p>
+ * Register with {@link TwilioVideoEvents#addListener(TwilioVideoListener)}.
+ * Callbacks arrive on the main thread, in the same order the JS events are
+ * emitted, and are shared with the JS bridge so the two never disagree.
+ */
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.twilio.video.TwilioException;
+
+public interface TwilioVideoListener {
+    void onConnected(RoomSession room);
+
+    void onConnectFailure(RoomSession room, TwilioException e);
+
+    void onDisconnected(RoomSession room, @Nullable TwilioException e);
+
+    void onParticipantConnected(RoomSession room, RoomParticipant participant);
+
+    void onParticipantDisconnected(RoomSession room, RoomParticipant participant);
+
+    void onVideoTrackAdded(RoomParticipant participant, RoomVideoTrack videoTrack);
+
+    void onVideoTrackRemoved(RoomParticipant participant, RoomVideoTrack videoTrack);
+
+    void onVideoTrackEnabled(RoomParticipant participant, RoomVideoTrack videoTrack);
+
+    void onVideoTrackDisabled(RoomParticipant participant, RoomVideoTrack videoTrack);
+
+    void onAudioTrackAdded(RoomParticipant participant, RoomAudioTrack audioTrack);
+
+    void onAudioTrackRemoved(RoomParticipant participant, RoomAudioTrack audioTrack);
+
+    void onAudioTrackEnabled(RoomParticipant participant, RoomAudioTrack audioTrack);
+
+    void onAudioTrackDisabled(RoomParticipant participant, RoomAudioTrack audioTrack);
+
+    /*
+     * Empty implementation to extend when only a few callbacks are of interest.
+     */
+    class Adapter implements TwilioVideoListener {
+        @Override
+        public void onConnected(RoomSession room) {
+        }
+
+        @Override
+        public void onConnectFailure(RoomSession room, TwilioException e) {
+        }
+
+        @Override
+        public void onDisconnected(RoomSession room, @Nullable TwilioException e) {
+        }
+
+        @Override
+        public void onParticipantConnected(RoomSession room, RoomParticipant participant) {
+        }
+
+        @Override
+        public void onParticipantDisconnected(RoomSession room, RoomParticipant participant) {
+        }
+
+        @Override
+        public void onVideoTrackAdded(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        }
+
+        @Override
+        public void onVideoTrackRemoved(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        }
+
+        @Override
+        public void onVideoTrackEnabled(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        }
+
+        @Override
+        public void onVideoTrackDisabled(RoomParticipant participant, RoomVideoTrack videoTrack) {
+        }
+
+        @Override
+        public void onAudioTrackAdded(RoomParticipant participant, RoomAudioTrack audioTrack) {
+        }
+
+        @Override
+        public void onAudioTrackRemoved(RoomParticipant participant, RoomAudioTrack audioTrack) {
+        }
+
+        @Override
+        public void onAudioTrackEnabled(RoomParticipant participant, RoomAudioTrack audioTrack) {
+        }
+
+        @Override
+        public void onAudioTrackDisabled(RoomParticipant participant, RoomAudioTrack audioTrack) {
+        }
+    }
+}
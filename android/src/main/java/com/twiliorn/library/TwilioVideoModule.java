@@ -0,0 +1,159 @@
+/**
+ * Native module for the parts of Twilio Video that are not tied to a view.
+ */
+package com.twiliorn.library;
+
+import android.os.AsyncTask;
+import android.view.View;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.uimanager.NativeViewHierarchyManager;
+import com.facebook.react.uimanager.UIBlock;
+import com.facebook.react.uimanager.UIManagerModule;
+
+import java.util.Map;
+
+public class TwilioVideoModule extends ReactContextBaseJavaModule {
+    public static final String REACT_CLASS = "TWVideoModule";
+
+    public TwilioVideoModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @Override
+    public String getName() {
+        return REACT_CLASS;
+    }
+
+    /*
+     * Initialises the Video SDK in the background; resolves with the time it took once ready.
+     */
+    @ReactMethod
+    public void preload(final Promise promise) {
+        VideoPreloader.start(getReactApplicationContext(), new VideoPreloader.Callback() {
+            @Override
+            public void onReady(long preloadMs) {
+                promise.resolve((double) preloadMs);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void getPreloadStats(Promise promise) {
+        promise.resolve(VideoPreloader.getStats());
+    }
+
+    /*
+     * Frame timing summaries of every remote tile, keyed by track id.
+     */
+    @ReactMethod
+    public void getRenderStats(final Promise promise) {
+        UiThreadUtil.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                promise.resolve(CustomTwilioVideoView.getRenderStats());
+            }
+        });
+    }
+
+    /*
+     * Flight recorder records from the last given number of minutes, including those written
+     * before the app was last killed. Reading may have to map the file first, so it runs off the
+     * UI thread.
+     */
+    @ReactMethod
+    public void getFlightRecord(final double minutes, final Promise promise) {
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                promise.resolve(FlightRecorder.read(getReactApplicationContext(), minutes));
+            }
+        });
+    }
+
+    /*
+     * The first call probes the codec list, which is slow, so it runs off the module thread.
+     */
+    @ReactMethod
+    public void getCodecCapabilities(final Promise promise) {
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                promise.resolve(CodecCapabilities.get().toWritableMap());
+            }
+        });
+    }
+
+    /*
+     * Applies an ordered list of {command, args} operations to the video view with the given
+     * tag in a single pass on the UI thread, and resolves with a result and timing per operation.
+     * A failing operation is reported and the rest of the batch still runs.
+     */
+    @ReactMethod
+    public void runCommands(final int viewTag, final ReadableArray operations, final Promise promise) {
+        UIManagerModule uiManager = getReactApplicationContext().getNativeModule(UIManagerModule.class);
+        uiManager.addUIBlock(new UIBlock() {
+            @Override
+            public void execute(NativeViewHierarchyManager nativeViewHierarchyManager) {
+                View view;
+                try {
+                    view = nativeViewHierarchyManager.resolveView(viewTag);
+                } catch (RuntimeException e) {
+                    promise.reject("E_NO_VIEW", "No view with tag " + viewTag, e);
+                    return;
+                }
+                if (!(view instanceof CustomTwilioVideoView)) {
+                    promise.reject("E_NO_VIEW", "View " + viewTag + " is not a Twilio video view");
+                    return;
+                }
+                promise.resolve(runCommands((CustomTwilioVideoView) view, operations));
+            }
+        });
+    }
+
+    private static WritableMap runCommands(CustomTwilioVideoView view, ReadableArray operations) {
+        Map<String, Integer> commands = CustomTwilioVideoViewManager.commands();
+        WritableArray results = EventPayloads.createArray();
+        long batchStart = System.nanoTime();
+
+        for (int i = 0; i < operations.size(); i++) {
+            WritableMap result = EventPayloads.createMap();
+            result.putNull("command");
+
+            long start = System.nanoTime();
+            try {
+                // A malformed operation fails on its own instead of taking the batch down.
+                ReadableMap operation = operations.getMap(i);
+                String name = operation.hasKey("command") ? operation.getString("command") : null;
+                result.putString("command", name);
+                Integer commandId = commands.get(name);
+                if (commandId == null) {
+                    throw new IllegalArgumentException("Unknown command " + name);
+                }
+                ReadableArray args = operation.hasKey("args")
+                        ? operation.getArray("args")
+                        : EventPayloads.createArray();
+                CustomTwilioVideoViewManager.runCommand(view, commandId, args);
+                result.putBoolean("ok", true);
+            } catch (RuntimeException e) {
+                result.putBoolean("ok", false);
+                result.putString("error", e.getMessage());
+            }
+            result.putDouble("durationMs", (System.nanoTime() - start) / 1000000d);
+            results.pushMap(result);
+        }
+
+        WritableMap batch = EventPayloads.createMap();
+        batch.putArray("results", results);
+        batch.putDouble("durationMs", (System.nanoTime() - batchStart) / 1000000d);
+        return batch;
+    }
+}
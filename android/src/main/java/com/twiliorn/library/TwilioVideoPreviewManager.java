@@ -27,6 +27,11 @@ public class TwilioVideoPreviewManager extends SimpleViewManager<TwilioVideoPrev
         return REACT_CLASS;
     }
 
+    @ReactProp(name = "scalingType")
+    public void setScalingType(TwilioVideoPreview view, @Nullable String scalingType) {
+        view.setScalingType(scalingType);
+    }
+
     @Override
     protected TwilioVideoPreview createViewInstance(ThemedReactContext reactContext) {
         return new TwilioVideoPreview(reactContext);
@@ -0,0 +1,87 @@
+/**
+ * Seam over the Twilio Video SDK entry points used to create local media and
+ * connect to a Room, so the view can be driven by something other than the
+ * real SDK.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+
+import com.twilio.video.CameraCapturer;
+import com.twilio.video.ConnectOptions;
+import com.twilio.video.LocalAudioTrack;
+import com.twilio.video.LocalVideoTrack;
+import com.twilio.video.VideoConstraints;
+
+import java.util.Collections;
+
+public interface VideoClient {
+    @Nullable
+    CameraCapturer createCameraCapturer(Context context,
+                                        CameraCapturer.CameraSource cameraSource,
+                                        CameraCapturer.Listener listener);
+
+    LocalAudioTrack createAudioTrack(Context context, boolean enabled);
+
+    LocalVideoTrack createVideoTrack(Context context,
+                                     boolean enabled,
+                                     CameraCapturer cameraCapturer,
+                                     VideoConstraints videoConstraints);
+
+    RoomSession connect(Context context,
+                        String accessToken,
+                        @Nullable String roomName,
+                        @Nullable LocalAudioTrack localAudioTrack,
+                        @Nullable LocalVideoTrack localVideoTrack,
+                        RoomSession.Listener listener);
+
+    /*
+     * Delegates straight to the Twilio Video SDK.
+     */
+    VideoClient DEFAULT = new VideoClient() {
+        @Override
+        public CameraCapturer createCameraCapturer(Context context,
+                                                   CameraCapturer.CameraSource cameraSource,
+                                                   CameraCapturer.Listener listener) {
+            return new CameraCapturer(context, cameraSource, listener);
+        }
+
+        @Override
+        public LocalAudioTrack createAudioTrack(Context context, boolean enabled) {
+            return LocalAudioTrack.create(context, enabled);
+        }
+
+        @Override
+        public LocalVideoTrack createVideoTrack(Context context,
+                                                boolean enabled,
+                                                CameraCapturer cameraCapturer,
+                                                VideoConstraints videoConstraints) {
+            return LocalVideoTrack.create(context, enabled, cameraCapturer, videoConstraints);
+        }
+
+        @Override
+        public RoomSession connect(Context context,
+                                   String accessToken,
+                                   @Nullable String roomName,
+                                   @Nullable LocalAudioTrack localAudioTrack,
+                                   @Nullable LocalVideoTrack localVideoTrack,
+                                   RoomSession.Listener listener) {
+            ConnectOptions.Builder connectOptionsBuilder = new ConnectOptions.Builder(accessToken);
+
+            if (roomName != null) {
+                connectOptionsBuilder.roomName(roomName);
+            }
+
+            if (localAudioTrack != null) {
+                connectOptionsBuilder.audioTracks(Collections.singletonList(localAudioTrack));
+            }
+
+            if (localVideoTrack != null) {
+                connectOptionsBuilder.videoTracks(Collections.singletonList(localVideoTrack));
+            }
+
+            return SdkRoomSession.connect(context, connectOptionsBuilder.build(), listener);
+        }
+    };
+}
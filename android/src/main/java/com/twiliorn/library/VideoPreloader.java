@@ -0,0 +1,140 @@
+/**
+ * Loads and initialises the Video SDK's native libraries on a background
+ * thread, so the first connect does not pay for it on the UI thread.
+ */
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.facebook.react.bridge.WritableMap;
+import com.twilio.video.LocalAudioTrack;
+import com.twilio.video.Video;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class VideoPreloader {
+    interface Callback {
+        void onReady(long preloadMs);
+    }
+
+    private static final String TAG = "VideoPreloader";
+
+    /*
+     * The thread lives from start until the warm track has been released.
+     */
+    private static HandlerThread thread;
+    private static Handler handler;
+    private static boolean started;
+    private static boolean ready;
+    private static long preloadMs = -1;
+    private static long firstConnectMs = -1;
+    private static boolean firstConnectPreloaded;
+    private static final List<Callback> callbacks = new ArrayList<>();
+
+    /*
+     * The SDK tears its media factory down with the last track, so a disabled audio track is
+     * kept alive until the first Room connects and then released.
+     */
+    private static LocalAudioTrack warmTrack;
+
+    private VideoPreloader() {
+    }
+
+    static synchronized void start(Context context, final Callback callback) {
+        if (ready) {
+            callback.onReady(preloadMs);
+            return;
+        }
+        callbacks.add(callback);
+        if (started) {
+            return;
+        }
+        started = true;
+
+        final Context applicationContext = context.getApplicationContext();
+        thread = new HandlerThread(TAG);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                long start = SystemClock.elapsedRealtime();
+                try {
+                    Log.i(TAG, "Preloading Video SDK " + Video.getVersion());
+                    warmTrack = LocalAudioTrack.create(applicationContext, false);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Video SDK preload failed", e);
+                }
+                onPreloaded(SystemClock.elapsedRealtime() - start);
+
+                /*
+                 * Probe codecs here too, so getCodecCapabilities answers from memory later.
+                 * video-android 1.x takes no codec preference, so the order is only logged.
+                 */
+                Log.i(TAG, "Preferred video codecs " + CodecCapabilities.get().getPreferredVideoCodecs());
+            }
+        });
+    }
+
+    private static void onPreloaded(long elapsedMs) {
+        List<Callback> ready;
+        synchronized (VideoPreloader.class) {
+            VideoPreloader.ready = true;
+            preloadMs = elapsedMs;
+            ready = new ArrayList<>(callbacks);
+            callbacks.clear();
+        }
+        Log.i(TAG, "Video SDK preloaded in " + elapsedMs + "ms");
+        for (Callback callback : ready) {
+            callback.onReady(elapsedMs);
+        }
+    }
+
+    /*
+     * Records how long the first connect took on the calling thread, and whether the preload had
+     * completed by then, so runs with and without preloading can be compared.
+     */
+    static synchronized void onFirstConnect(long elapsedMs) {
+        if (firstConnectMs >= 0) {
+            return;
+        }
+        firstConnectMs = elapsedMs;
+        firstConnectPreloaded = ready;
+    }
+
+    /*
+     * Queued behind the preload, so a release that comes first still waits for the track.
+     */
+    static synchronized void releaseWarmTrack() {
+        if (handler == null) {
+            return;
+        }
+        final HandlerThread preloadThread = thread;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (warmTrack != null) {
+                    warmTrack.release();
+                    warmTrack = null;
+                }
+                preloadThread.quit();
+            }
+        });
+        handler = null;
+        thread = null;
+    }
+
+    static synchronized WritableMap getStats() {
+        WritableMap stats = EventPayloads.createMap();
+        stats.putBoolean("ready", ready);
+        stats.putDouble("preloadMs", preloadMs);
+        stats.putDouble("firstConnectMs", firstConnectMs);
+        stats.putBoolean("firstConnectPreloaded", firstConnectPreloaded);
+        return stats;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Keeps track of the remote video tracks that are available for rendering,
+ * keyed by track id.
+ */
+package com.twiliorn.library;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class VideoTrackRegistry {
+    /*
+     * Insertion ordered so iteration matches the order tracks were added in, while lookup and
+     * removal by track id stay constant time regardless of room size.
+     */
+    private final Map<String, RoomVideoTrack> tracks = new LinkedHashMap<>();
+
+    void add(RoomVideoTrack videoTrack) {
+        tracks.put(videoTrack.getTrackId(), videoTrack);
+    }
+
+    RoomVideoTrack get(String trackId) {
+        return tracks.get(trackId);
+    }
+
+    RoomVideoTrack remove(String trackId) {
+        return tracks.remove(trackId);
+    }
+
+    boolean isEmpty() {
+        return tracks.isEmpty();
+    }
+
+    Collection<RoomVideoTrack> all() {
+        return tracks.values();
+    }
+
+    void clear() {
+        tracks.clear();
+    }
+}
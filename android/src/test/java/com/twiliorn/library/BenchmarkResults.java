@@ -0,0 +1,99 @@
+package com.twiliorn.library;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Metrics of one benchmark run, appended as a JSON line to <dir>/<name>.jsonl so runs can be
+ * compared over time. The directory defaults to build/benchmarks and can be moved with
+ * -Dbenchmark.dir=... so results survive a clean. Each save prints the metrics next to the
+ * previous run's.
+ */
+class BenchmarkResults {
+    static final String DIR_PROPERTY = "benchmark.dir";
+
+    private final String name;
+    private final Map<String, Double> metrics = new LinkedHashMap<>();
+
+    BenchmarkResults(String name) {
+        this.name = name;
+    }
+
+    BenchmarkResults put(String metric, double value) {
+        metrics.put(metric, value);
+        return this;
+    }
+
+    void save() throws IOException {
+        File dir = new File(System.getProperty(DIR_PROPERTY, "build/benchmarks"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        File file = new File(dir, name + ".jsonl");
+        String previous = lastLine(file);
+
+        StringBuilder line = new StringBuilder();
+        line.append("{\"timestamp\":").append(System.currentTimeMillis());
+        for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+            line.append(",\"").append(metric.getKey()).append("\":").append(format(metric.getValue()));
+        }
+        line.append("}\n");
+
+        Writer writer = new FileWriter(file, true);
+        try {
+            writer.write(line.toString());
+        } finally {
+            writer.close();
+        }
+
+        System.out.println(name + " (" + file + ")");
+        for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+            Double before = previous != null ? find(previous, metric.getKey()) : null;
+            String comparison = "";
+            if (before != null && before != 0) {
+                comparison = String.format(Locale.US, "  (previous %s, %+.1f%%)",
+                        format(before), (metric.getValue() - before) * 100 / Math.abs(before));
+            }
+            System.out.println("  " + metric.getKey() + ": " + format(metric.getValue()) + comparison);
+        }
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15
+                ? Long.toString((long) value)
+                : String.format(Locale.US, "%.3f", value);
+    }
+
+    private static String lastLine(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String last = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    last = line;
+                }
+            }
+            return last;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Double find(String json, String metric) {
+        Matcher matcher = Pattern.compile("\"" + Pattern.quote(metric) + "\":(-?[0-9.eE+-]+)").matcher(json);
+        return matcher.find() ? Double.valueOf(matcher.group(1)) : null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.twiliorn.library;
+
+import com.twilio.video.VideoDimensions;
+import com.twilio.video.VideoFormat;
+import com.twilio.video.VideoPixelFormat;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class CaptureFormatSelectorTest {
+    private static final VideoDimensions CIF = new VideoDimensions(352, 288);
+    private static final VideoDimensions VGA = new VideoDimensions(640, 480);
+
+    @Test
+    public void exactSizeWins() {
+        VideoFormat cif = format(352, 288, 30);
+        assertSame(cif, CaptureFormatSelector.bestMatch(
+                Arrays.asList(format(320, 240, 30), cif, format(640, 480, 30)), CIF, 15));
+    }
+
+    @Test
+    public void prefersDownscalingToUpscaling() {
+        VideoFormat larger = format(384, 314, 30);
+        assertSame(larger, CaptureFormatSelector.bestMatch(
+                Arrays.asList(format(320, 262, 30), larger), CIF, 15));
+    }
+
+    @Test
+    public void aspectRatioOutweighsASmallAreaDifference() {
+        VideoFormat fourByThree = format(704, 528, 30);
+        assertSame(fourByThree, CaptureFormatSelector.bestMatch(
+                Arrays.asList(format(768, 432, 30), fourByThree), VGA, 15));
+    }
+
+    @Test
+    public void avoidsFormatsThatCannotReachTheFrameRate() {
+        VideoFormat fastEnough = format(384, 314, 30);
+        assertSame(fastEnough, CaptureFormatSelector.bestMatch(
+                Arrays.asList(format(352, 288, 10), fastEnough), CIF, 15));
+    }
+
+    @Test
+    public void ignoresEmptyFormats() {
+        assertNull(CaptureFormatSelector.bestMatch(Collections.singletonList(format(0, 0, 30)), CIF, 15));
+        assertNull(CaptureFormatSelector.bestMatch(Collections.<VideoFormat>emptyList(), CIF, 15));
+    }
+
+    private static VideoFormat format(int width, int height, int fps) {
+        return new VideoFormat(new VideoDimensions(width, height), fps, VideoPixelFormat.NV21);
+    }
+}
@@ -0,0 +1,123 @@
+package com.twiliorn.library;
+
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class CaptureGovernorTest {
+    private CaptureGovernor governor;
+
+    @Before
+    public void setUp() {
+        governor = new CaptureGovernor(mock(Context.class));
+    }
+
+    @Test
+    public void staysUnrestrictedWhenCoolAndCharging() {
+        assertFalse(governor.evaluate());
+        assertEquals(0, governor.getStage());
+    }
+
+    @Test
+    public void stepsDownOneStagePerEvaluation() {
+        governor.onThermalStatusChanged(3);
+
+        assertTrue(governor.evaluate());
+        assertEquals(1, governor.getStage());
+        assertTrue(governor.evaluate());
+        assertEquals(2, governor.getStage());
+        assertTrue(governor.evaluate());
+        assertEquals(3, governor.getStage());
+        assertFalse(governor.evaluate());
+        assertEquals(CaptureGovernor.MAX_STAGE, governor.getStage());
+    }
+
+    @Test
+    public void thermalStatusSetsTheTargetStage() {
+        governor.onThermalStatusChanged(1);
+        evaluateUntilSettled();
+        assertEquals(1, governor.getStage());
+
+        governor.onThermalStatusChanged(2);
+        evaluateUntilSettled();
+        assertEquals(2, governor.getStage());
+    }
+
+    @Test
+    public void lowBatteryOnlyCountsWhileUnplugged() {
+        governor.onBatteryChanged(15, true);
+        evaluateUntilSettled();
+        assertEquals(0, governor.getStage());
+
+        governor.onBatteryChanged(15, false);
+        evaluateUntilSettled();
+        assertEquals(1, governor.getStage());
+
+        governor.onBatteryChanged(5, false);
+        evaluateUntilSettled();
+        assertEquals(2, governor.getStage());
+    }
+
+    @Test
+    public void thermalAndBatteryTakeTheMoreRestrictive() {
+        governor.onThermalStatusChanged(1);
+        governor.onBatteryChanged(5, false);
+        evaluateUntilSettled();
+        assertEquals(2, governor.getStage());
+    }
+
+    @Test
+    public void stepsUpOnlyAfterThreeRecoveredEvaluations() {
+        governor.onThermalStatusChanged(1);
+        assertTrue(governor.evaluate());
+
+        governor.onThermalStatusChanged(0);
+        assertFalse(governor.evaluate());
+        assertFalse(governor.evaluate());
+        assertTrue(governor.evaluate());
+        assertEquals(0, governor.getStage());
+    }
+
+    @Test
+    public void relapseRestartsRecovery() {
+        governor.onThermalStatusChanged(1);
+        assertTrue(governor.evaluate());
+
+        governor.onThermalStatusChanged(0);
+        assertFalse(governor.evaluate());
+        assertFalse(governor.evaluate());
+        governor.onThermalStatusChanged(1);
+        assertFalse(governor.evaluate());
+
+        governor.onThermalStatusChanged(0);
+        assertFalse(governor.evaluate());
+        assertFalse(governor.evaluate());
+        assertTrue(governor.evaluate());
+        assertEquals(0, governor.getStage());
+    }
+
+    @Test
+    public void videoBitrateBudgetsMapOntoStages() {
+        assertEquals(0, CaptureGovernor.stageForVideoBitrate(0));
+        assertEquals(0, CaptureGovernor.stageForVideoBitrate(1000));
+        assertEquals(0, CaptureGovernor.stageForVideoBitrate(400));
+        assertEquals(1, CaptureGovernor.stageForVideoBitrate(399));
+        assertEquals(1, CaptureGovernor.stageForVideoBitrate(300));
+        assertEquals(2, CaptureGovernor.stageForVideoBitrate(299));
+        assertEquals(2, CaptureGovernor.stageForVideoBitrate(150));
+        assertEquals(3, CaptureGovernor.stageForVideoBitrate(149));
+        assertEquals(3, CaptureGovernor.stageForVideoBitrate(20));
+    }
+
+    private void evaluateUntilSettled() {
+        for (int i = 0; i <= CaptureGovernor.MAX_STAGE * 3; i++) {
+            governor.evaluate();
+        }
+    }
+}
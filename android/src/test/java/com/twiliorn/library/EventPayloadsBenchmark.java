@@ -0,0 +1,133 @@
+package com.twiliorn.library;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assume.assumeTrue;
+
+/*
+ * Cost of the participant and participant video payloads in the nested and compact schemas.
+ * Each payload is timed with JVM-only maps, and with WritableNativeMap where the React Native
+ * libraries can be loaded. On the JVM, mapsPerEvent stands in for the native cost: on a device
+ * every map is a WritableNativeMap with its own JNI peer, and that dominates the payload cost.
+ */
+public class EventPayloadsBenchmark {
+    private static final int IDENTITIES = 1000;
+
+    private final String[] identities = new String[IDENTITIES];
+    private final String[] trackIds = new String[IDENTITIES];
+    private final EventHandles handles = new EventHandles();
+
+    /*
+     * Counts what a payload creates, then hands out JVM-only maps.
+     */
+    private static class CountingFactory implements EventPayloads.Factory {
+        int created;
+
+        @Override
+        public WritableMap createMap() {
+            created++;
+            return ReactTestSupport.JAVA_ONLY_PAYLOADS.createMap();
+        }
+
+        @Override
+        public WritableArray createArray() {
+            created++;
+            return ReactTestSupport.JAVA_ONLY_PAYLOADS.createArray();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        assumeTrue(MicroBenchmark.ENABLED);
+        for (int i = 0; i < IDENTITIES; i++) {
+            identities[i] = "participant-" + i;
+            trackIds[i] = "video-" + i;
+            // Compact schema once every string has its handle, the steady state of a call.
+            handles.handle(identities[i]);
+            handles.handle(trackIds[i]);
+        }
+        handles.drainPending();
+    }
+
+    @After
+    public void tearDown() {
+        EventPayloads.setFactory(null);
+    }
+
+    @Test
+    public void participantEvents() throws IOException {
+        Map<String, MicroBenchmark.Operation> payloads = new LinkedHashMap<>();
+        payloads.put("participantEvent", new MicroBenchmark.Operation() {
+            @Override
+            public int run(int iteration) {
+                return EventPayloads.participantEvent(identities[iteration % IDENTITIES]).hashCode();
+            }
+        });
+        payloads.put("compactParticipantEvent", new MicroBenchmark.Operation() {
+            @Override
+            public int run(int iteration) {
+                return EventPayloads.participantEvent(
+                        handles.handle(identities[iteration % IDENTITIES])).hashCode();
+            }
+        });
+        payloads.put("participantVideoEvent", new MicroBenchmark.Operation() {
+            @Override
+            public int run(int iteration) {
+                int i = iteration % IDENTITIES;
+                return EventPayloads.participantVideoEvent(identities[i], trackIds[i]).hashCode();
+            }
+        });
+        payloads.put("compactParticipantVideoEvent", new MicroBenchmark.Operation() {
+            @Override
+            public int run(int iteration) {
+                int i = iteration % IDENTITIES;
+                return EventPayloads.participantVideoEvent(
+                        handles.handle(identities[i]), handles.handle(trackIds[i])).hashCode();
+            }
+        });
+
+        boolean nativePayloads = nativePayloadsAvailable();
+        BenchmarkResults results = new BenchmarkResults("event-payloads");
+        results.put("nativePayloads", nativePayloads ? 1 : 0);
+        for (Map.Entry<String, MicroBenchmark.Operation> payload : payloads.entrySet()) {
+            String name = payload.getKey();
+            MicroBenchmark.Operation operation = payload.getValue();
+
+            CountingFactory counting = new CountingFactory();
+            EventPayloads.setFactory(counting);
+            operation.run(0);
+            results.put(name + ".mapsPerEvent", counting.created);
+
+            EventPayloads.setFactory(ReactTestSupport.JAVA_ONLY_PAYLOADS);
+            MicroBenchmark.record(results, name, MicroBenchmark.measure(100000, 1000000, operation));
+
+            if (nativePayloads) {
+                EventPayloads.setFactory(null);
+                MicroBenchmark.record(results, name + ".native",
+                        MicroBenchmark.measure(10000, 100000, operation));
+            }
+        }
+        results.save();
+    }
+
+    /*
+     * WritableNativeMap needs the React Native .so files, which a plain JVM run does not have.
+     */
+    private static boolean nativePayloadsAvailable() {
+        try {
+            EventPayloads.NATIVE.createMap();
+            return true;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
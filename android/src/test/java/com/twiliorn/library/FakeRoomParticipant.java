@@ -0,0 +1,62 @@
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.twilio.video.Participant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class FakeRoomParticipant implements RoomParticipant {
+    private final String identity;
+    private final List<RoomVideoTrack> videoTracks = new ArrayList<>();
+    private Listener listener;
+
+    FakeRoomParticipant(String identity) {
+        this.identity = identity;
+    }
+
+    @Nullable
+    Listener getListener() {
+        return listener;
+    }
+
+    @Nullable
+    FakeRoomVideoTrack findVideoTrack(String trackId) {
+        for (RoomVideoTrack videoTrack : videoTracks) {
+            if (videoTrack.getTrackId().equals(trackId)) {
+                return (FakeRoomVideoTrack) videoTrack;
+            }
+        }
+        return null;
+    }
+
+    void addVideoTrack(FakeRoomVideoTrack videoTrack) {
+        videoTracks.add(videoTrack);
+    }
+
+    void removeVideoTrack(FakeRoomVideoTrack videoTrack) {
+        videoTracks.remove(videoTrack);
+    }
+
+    @Override
+    public String getIdentity() {
+        return identity;
+    }
+
+    @Override
+    public List<RoomVideoTrack> getVideoTracks() {
+        return new ArrayList<>(videoTracks);
+    }
+
+    @Override
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    @Nullable
+    @Override
+    public Participant getSdkParticipant() {
+        return null;
+    }
+}
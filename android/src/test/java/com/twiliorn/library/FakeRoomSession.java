@@ -0,0 +1,224 @@
+package com.twiliorn.library;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+
+import com.twilio.video.LocalVideoTrack;
+import com.twilio.video.Room;
+import com.twilio.video.RoomState;
+import com.twilio.video.StatsListener;
+import com.twilio.video.StatsReport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * In-process Room. Scripted changes are delivered like the SDK delivers them: posted to the main
+ * looper, one callback per message, so a paused Robolectric looper decides when they run.
+ */
+class FakeRoomSession implements RoomSession {
+    private final String name;
+    private final String localIdentity;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, FakeRoomParticipant> participants = new LinkedHashMap<>();
+    private final List<LocalVideoTrack> publishedVideoTracks = new ArrayList<>();
+    private RoomState state = RoomState.CONNECTING;
+
+    @Nullable
+    private UiThreadTimer timer;
+
+    FakeRoomSession(String name, String localIdentity, Listener listener) {
+        this.name = name;
+        this.localIdentity = localIdentity;
+        this.listener = listener;
+    }
+
+    void setTimer(@Nullable UiThreadTimer timer) {
+        this.timer = timer;
+    }
+
+    // ===== SCRIPT ================================================================================
+
+    void connect() {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                state = RoomState.CONNECTED;
+                listener.onConnected(FakeRoomSession.this);
+            }
+        });
+    }
+
+    void join(final String identity) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                FakeRoomParticipant participant = new FakeRoomParticipant(identity);
+                participants.put(identity, participant);
+                listener.onParticipantConnected(FakeRoomSession.this, participant);
+            }
+        });
+    }
+
+    void leave(final String identity) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                FakeRoomParticipant participant = participants.remove(identity);
+                if (participant != null) {
+                    listener.onParticipantDisconnected(FakeRoomSession.this, participant);
+                }
+            }
+        });
+    }
+
+    void addVideoTrack(final String identity, final String trackId) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                FakeRoomParticipant participant = participants.get(identity);
+                if (participant == null) {
+                    return;
+                }
+                FakeRoomVideoTrack videoTrack = new FakeRoomVideoTrack(trackId);
+                participant.addVideoTrack(videoTrack);
+                if (participant.getListener() != null) {
+                    participant.getListener().onVideoTrackAdded(participant, videoTrack);
+                }
+            }
+        });
+    }
+
+    void removeVideoTrack(final String identity, final String trackId) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                FakeRoomParticipant participant = participants.get(identity);
+                FakeRoomVideoTrack videoTrack = participant != null ? participant.findVideoTrack(trackId) : null;
+                if (videoTrack == null) {
+                    return;
+                }
+                participant.removeVideoTrack(videoTrack);
+                if (participant.getListener() != null) {
+                    participant.getListener().onVideoTrackRemoved(participant, videoTrack);
+                }
+            }
+        });
+    }
+
+    void setVideoTrackEnabled(final String identity, final String trackId, final boolean enabled) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                FakeRoomParticipant participant = participants.get(identity);
+                FakeRoomVideoTrack videoTrack = participant != null ? participant.findVideoTrack(trackId) : null;
+                if (videoTrack == null || videoTrack.isEnabled() == enabled) {
+                    return;
+                }
+                videoTrack.setEnabled(enabled);
+                if (participant.getListener() == null) {
+                    return;
+                }
+                if (enabled) {
+                    participant.getListener().onVideoTrackEnabled(participant, videoTrack);
+                } else {
+                    participant.getListener().onVideoTrackDisabled(participant, videoTrack);
+                }
+            }
+        });
+    }
+
+    @Nullable
+    FakeRoomParticipant getParticipant(String identity) {
+        return participants.get(identity);
+    }
+
+    List<LocalVideoTrack> getPublishedVideoTracks() {
+        return Collections.unmodifiableList(publishedVideoTracks);
+    }
+
+    private void post(final Runnable callback) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                UiThreadTimer currentTimer = timer;
+                if (currentTimer == null) {
+                    callback.run();
+                    return;
+                }
+                long start = System.nanoTime();
+                callback.run();
+                currentTimer.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    // ===== ROOM SESSION ==========================================================================
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public RoomState getState() {
+        return state;
+    }
+
+    @Nullable
+    @Override
+    public String getLocalIdentity() {
+        return localIdentity;
+    }
+
+    @Override
+    public List<RoomParticipant> getParticipants() {
+        return new ArrayList<RoomParticipant>(participants.values());
+    }
+
+    @Override
+    public void publishVideoTrack(LocalVideoTrack videoTrack) {
+        publishedVideoTracks.add(videoTrack);
+    }
+
+    @Override
+    public void unpublishVideoTrack(LocalVideoTrack videoTrack) {
+        publishedVideoTracks.remove(videoTrack);
+    }
+
+    @Override
+    public void getStats(final StatsListener statsListener) {
+        post(new Runnable() {
+            @Override
+            public void run() {
+                statsListener.onStats(Collections.<StatsReport>emptyList());
+            }
+        });
+    }
+
+    @Override
+    public void disconnect() {
+        if (state == RoomState.DISCONNECTED) {
+            return;
+        }
+        post(new Runnable() {
+            @Override
+            public void run() {
+                state = RoomState.DISCONNECTED;
+                listener.onDisconnected(FakeRoomSession.this, null);
+                participants.clear();
+            }
+        });
+    }
+
+    @Nullable
+    @Override
+    public Room getSdkRoom() {
+        return null;
+    }
+}
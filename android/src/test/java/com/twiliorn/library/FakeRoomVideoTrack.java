@@ -0,0 +1,57 @@
+package com.twiliorn.library;
+
+import android.support.annotation.Nullable;
+
+import com.twilio.video.VideoRenderer;
+import com.twilio.video.VideoTrack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class FakeRoomVideoTrack implements RoomVideoTrack {
+    private final String trackId;
+    private final List<VideoRenderer> renderers = new ArrayList<>();
+    private boolean enabled = true;
+
+    FakeRoomVideoTrack(String trackId) {
+        this.trackId = trackId;
+    }
+
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String getTrackId() {
+        return trackId;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void addRenderer(VideoRenderer renderer) {
+        if (!renderers.contains(renderer)) {
+            renderers.add(renderer);
+        }
+    }
+
+    @Override
+    public void removeRenderer(VideoRenderer renderer) {
+        renderers.remove(renderer);
+    }
+
+    @Override
+    public List<VideoRenderer> getRenderers() {
+        return Collections.unmodifiableList(renderers);
+    }
+
+    @Nullable
+    @Override
+    public VideoTrack getSdkTrack() {
+        return null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.twiliorn.library;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+
+import com.twilio.video.CameraCapturer;
+import com.twilio.video.LocalAudioTrack;
+import com.twilio.video.LocalVideoTrack;
+import com.twilio.video.VideoConstraints;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/*
+ * VideoClient that never touches the SDK's native code: local media are inert mocks and connect
+ * returns a FakeRoomSession. Install with CustomTwilioVideoView.setVideoClient.
+ */
+class FakeVideoClient implements VideoClient {
+    private FakeRoomSession session;
+
+    @Nullable
+    FakeRoomSession getSession() {
+        return session;
+    }
+
+    @Override
+    public CameraCapturer createCameraCapturer(Context context,
+                                               CameraCapturer.CameraSource cameraSource,
+                                               CameraCapturer.Listener listener) {
+        CameraCapturer cameraCapturer = mock(CameraCapturer.class);
+        when(cameraCapturer.getCameraSource()).thenReturn(cameraSource);
+        return cameraCapturer;
+    }
+
+    @Override
+    public LocalAudioTrack createAudioTrack(Context context, boolean enabled) {
+        LocalAudioTrack audioTrack = mock(LocalAudioTrack.class);
+        when(audioTrack.isEnabled()).thenReturn(enabled);
+        return audioTrack;
+    }
+
+    @Override
+    public LocalVideoTrack createVideoTrack(Context context,
+                                            boolean enabled,
+                                            CameraCapturer cameraCapturer,
+                                            VideoConstraints videoConstraints) {
+        LocalVideoTrack videoTrack = mock(LocalVideoTrack.class);
+        when(videoTrack.isEnabled()).thenReturn(enabled);
+        return videoTrack;
+    }
+
+    @Override
+    public RoomSession connect(Context context,
+                               String accessToken,
+                               @Nullable String roomName,
+                               @Nullable LocalAudioTrack localAudioTrack,
+                               @Nullable LocalVideoTrack localVideoTrack,
+                               RoomSession.Listener listener) {
+        session = new FakeRoomSession(roomName, "local", listener);
+        if (localVideoTrack != null) {
+            session.publishVideoTrack(localVideoTrack);
+        }
+        session.connect();
+        return session;
+    }
+}
@@ -0,0 +1,108 @@
+package com.twiliorn.library;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.uimanager.events.RCTEventEmitter;
+import com.twilio.video.I420Frame;
+import com.twilio.video.VideoRenderer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_ADDED_VIDEO_TRACK;
+import static com.twiliorn.library.CustomTwilioVideoView.Events.ON_PARTICIPANT_REMOVED_VIDEO_TRACK;
+
+/*
+ * Stands in for the JS side: counts the events it receives and, like an app rendering every
+ * remote track, registers a renderer when a track is added and drops it when the track goes away.
+ * The registration is posted to the main looper, as the bridge round trip would be.
+ */
+class JsEventRecorder implements RCTEventEmitter {
+    static class Renderer implements VideoRenderer {
+        @Override
+        public void renderFrame(I420Frame frame) {
+        }
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Map<String, Renderer> renderers = new HashMap<>();
+    private int eventCount;
+
+    @Nullable
+    private UiThreadTimer timer;
+
+    void setTimer(@Nullable UiThreadTimer timer) {
+        this.timer = timer;
+    }
+
+    int getEventCount() {
+        return eventCount;
+    }
+
+    int getEventCount(String eventName) {
+        Integer count = counts.get(eventName);
+        return count != null ? count : 0;
+    }
+
+    @Nullable
+    Renderer getRenderer(String trackId) {
+        return renderers.get(trackId);
+    }
+
+    @Override
+    public void receiveEvent(int targetTag, String eventName, @Nullable WritableMap event) {
+        eventCount++;
+        Integer count = counts.get(eventName);
+        counts.put(eventName, count != null ? count + 1 : 1);
+
+        if (ON_PARTICIPANT_ADDED_VIDEO_TRACK.equals(eventName)) {
+            final String trackId = trackId(event);
+            final Renderer renderer = new Renderer();
+            renderers.put(trackId, renderer);
+            post(new Runnable() {
+                @Override
+                public void run() {
+                    CustomTwilioVideoView.registerPrimaryVideoView(renderer, trackId);
+                }
+            });
+        } else if (ON_PARTICIPANT_REMOVED_VIDEO_TRACK.equals(eventName)) {
+            final Renderer renderer = renderers.remove(trackId(event));
+            if (renderer != null) {
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        CustomTwilioVideoView.unregisterPrimaryVideoView(renderer);
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    public void receiveTouches(String eventName, WritableArray touches, int[] changedIndices) {
+    }
+
+    private static String trackId(ReadableMap event) {
+        return event.getMap("track").getString("trackId");
+    }
+
+    private void post(final Runnable runnable) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                UiThreadTimer currentTimer = timer;
+                long start = System.nanoTime();
+                runnable.run();
+                if (currentTimer != null) {
+                    currentTimer.record(System.nanoTime() - start);
+                }
+            }
+        });
+    }
+}
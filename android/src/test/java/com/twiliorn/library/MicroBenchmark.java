@@ -0,0 +1,70 @@
+package com.twiliorn.library;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/*
+ * Times an operation after a warm-up and reports nanoseconds and bytes allocated per call.
+ * Benchmarks only run when the benchmark system property is set (./gradlew test -Pbenchmark),
+ * so the regular test run stays fast.
+ */
+final class MicroBenchmark {
+    static final boolean ENABLED = Boolean.getBoolean("benchmark");
+
+    interface Operation {
+        /*
+         * Returns something derived from the work so it cannot be optimized away.
+         */
+        int run(int iteration);
+    }
+
+    static class Measurement {
+        final double nanosPerOp;
+        final double bytesPerOp;
+
+        Measurement(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    static volatile int sink;
+
+    private MicroBenchmark() {
+    }
+
+    static Measurement measure(int warmupIterations, int iterations, Operation operation) {
+        int result = 0;
+        for (int i = 0; i < warmupIterations; i++) {
+            result += operation.run(i);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            result += operation.run(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = allocatedBytes() - allocatedBefore;
+        sink = result;
+
+        return new Measurement((double) elapsed / iterations,
+                allocatedBefore < 0 ? -1 : (double) allocated / iterations);
+    }
+
+    static void record(BenchmarkResults results, String metric, Measurement measurement) {
+        results.put(metric + ".nsPerOp", measurement.nanosPerOp)
+                .put(metric + ".bytesPerOp", measurement.bytesPerOp);
+    }
+
+    /*
+     * Bytes allocated by the calling thread so far; -1 on VMs without the HotSpot extension.
+     */
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
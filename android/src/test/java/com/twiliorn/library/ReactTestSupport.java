@@ -0,0 +1,52 @@
+package com.twiliorn.library;
+
+import android.content.Context;
+
+import com.facebook.react.bridge.CatalystInstance;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.uimanager.ThemedReactContext;
+import com.facebook.react.uimanager.events.RCTEventEmitter;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+final class ReactTestSupport {
+    /*
+     * Event payloads that live on the JVM heap, for running without the React Native .so files.
+     */
+    static final EventPayloads.Factory JAVA_ONLY_PAYLOADS = new EventPayloads.Factory() {
+        @Override
+        public WritableMap createMap() {
+            return new JavaOnlyMap();
+        }
+
+        @Override
+        public WritableArray createArray() {
+            return new JavaOnlyArray();
+        }
+    };
+
+    private ReactTestSupport() {
+    }
+
+    /*
+     * A context whose JS modules are mocks, except for the event emitter views push events to.
+     */
+    static ThemedReactContext createContext(Context base, RCTEventEmitter eventEmitter) {
+        CatalystInstance catalystInstance = mock(CatalystInstance.class, RETURNS_DEEP_STUBS);
+        /*
+         * getJSModule is generic, so when(...) would cast the deep stub it returns while
+         * recording to RCTEventEmitter and fail; doReturn never looks at the return value.
+         */
+        doReturn(eventEmitter).when(catalystInstance).getJSModule(RCTEventEmitter.class);
+
+        ReactApplicationContext reactContext = new ReactApplicationContext(base);
+        reactContext.initializeWithInstance(catalystInstance);
+        return new ThemedReactContext(reactContext, base);
+    }
+}
@@ -0,0 +1,210 @@
+package com.twiliorn.library;
+
+import android.content.Context;
+
+import com.twilio.video.VideoRenderer;
+
+import org.robolectric.shadows.ShadowLooper;
+import org.robolectric.util.Scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.robolectric.Robolectric.getForegroundThreadScheduler;
+
+/*
+ * Drives a CustomTwilioVideoView through a FakeRoomSession with participants joining, leaving and
+ * toggling their video, and measures what that costs on the main thread: event throughput, time
+ * spent per callback, bytes allocated and heap retained after the room is gone. The main looper
+ * is paused, so simulated time only advances when the simulator says so and every posted
+ * callback runs on the test thread.
+ */
+class RoomChurnSimulator {
+    static class Config {
+        int participants = 50;
+        int joinsAndLeavesPerSecond = 20;
+        int togglesPerSecond = 10;
+        int durationSeconds = 60;
+        long seed = 1;
+    }
+
+    static class Result {
+        int callbacks;
+        int events;
+        long wallNanos;
+        long uiTotalNanos;
+        long uiMaxNanos;
+        long uiP99Nanos;
+        long allocatedBytes;
+        long heapGrowthBytes;
+        final List<String> mismatches = new ArrayList<>();
+
+        double eventsPerSecond() {
+            return wallNanos > 0 ? events * 1e9 / wallNanos : 0;
+        }
+
+        double allocatedBytesPerEvent() {
+            return events > 0 ? (double) allocatedBytes / events : 0;
+        }
+
+        void save(BenchmarkResults results) throws java.io.IOException {
+            results.put("callbacks", callbacks)
+                    .put("events", events)
+                    .put("eventsPerSecond", eventsPerSecond())
+                    .put("uiTotalMs", uiTotalNanos / 1e6)
+                    .put("uiMaxUs", uiMaxNanos / 1e3)
+                    .put("uiP99Us", uiP99Nanos / 1e3)
+                    .put("allocatedBytes", allocatedBytes)
+                    .put("allocatedBytesPerEvent", allocatedBytesPerEvent())
+                    .put("heapGrowthBytes", heapGrowthBytes)
+                    .save();
+        }
+    }
+
+    private final Context context;
+    private final Config config;
+    private final Random random;
+
+    /*
+     * Simulated room membership: identity to its video track id, and the tracks' enabled state.
+     */
+    private final List<String> present = new ArrayList<>();
+    private final Map<String, String> trackIds = new HashMap<>();
+    private final Map<String, Boolean> trackEnabled = new HashMap<>();
+    private int nextParticipant;
+
+    RoomChurnSimulator(Context context, Config config) {
+        this.context = context;
+        this.config = config;
+        this.random = new Random(config.seed);
+    }
+
+    Result run() {
+        Result result = new Result();
+        FakeVideoClient videoClient = new FakeVideoClient();
+        JsEventRecorder js = new JsEventRecorder();
+        UiThreadTimer timer = new UiThreadTimer();
+        Scheduler scheduler = getForegroundThreadScheduler();
+
+        EventPayloads.setFactory(ReactTestSupport.JAVA_ONLY_PAYLOADS);
+        CustomTwilioVideoView.setVideoClient(videoClient);
+        ShadowLooper.pauseMainLooper();
+        try {
+            CustomTwilioVideoView view = new CustomTwilioVideoView(ReactTestSupport.createContext(context, js));
+            view.connectToRoomWrapper("churn", "token");
+            scheduler.advanceToLastPostedRunnable();
+            FakeRoomSession session = videoClient.getSession();
+
+            long heapBefore = usedHeapAfterGc();
+            // Includes every main looper callback, since the paused looper runs them on this thread.
+            long allocatedBefore = MicroBenchmark.allocatedBytes();
+            int eventsBefore = js.getEventCount();
+            session.setTimer(timer);
+            js.setTimer(timer);
+
+            int actionsPerSecond = config.joinsAndLeavesPerSecond + config.togglesPerSecond;
+            long stepNanos = TimeUnit.SECONDS.toNanos(1) / actionsPerSecond;
+            long steps = (long) config.durationSeconds * actionsPerSecond;
+            long start = System.nanoTime();
+            for (long step = 0; step < steps; step++) {
+                if (random.nextInt(actionsPerSecond) < config.joinsAndLeavesPerSecond) {
+                    joinOrLeave(session);
+                } else {
+                    toggle(session);
+                }
+                scheduler.advanceBy(stepNanos, TimeUnit.NANOSECONDS);
+            }
+            scheduler.advanceToLastPostedRunnable();
+            result.wallNanos = System.nanoTime() - start;
+            result.allocatedBytes = MicroBenchmark.allocatedBytes() - allocatedBefore;
+            result.events = js.getEventCount() - eventsBefore;
+            result.callbacks = timer.getCount();
+            result.uiTotalNanos = timer.getTotalNanos();
+            result.uiMaxNanos = timer.getMaxNanos();
+            result.uiP99Nanos = timer.percentileNanos(99);
+
+            verifyRenderers(session, js, result.mismatches);
+
+            session.setTimer(null);
+            js.setTimer(null);
+            view.disconnect();
+            scheduler.advanceToLastPostedRunnable();
+            view.onHostDestroy();
+            result.heapGrowthBytes = usedHeapAfterGc() - heapBefore;
+        } finally {
+            ShadowLooper.unPauseMainLooper();
+            CustomTwilioVideoView.setVideoClient(null);
+            EventPayloads.setFactory(null);
+        }
+        return result;
+    }
+
+    private void joinOrLeave(FakeRoomSession session) {
+        boolean join = present.isEmpty()
+                || (present.size() < config.participants && random.nextBoolean());
+        if (join) {
+            String identity = "participant-" + nextParticipant;
+            String trackId = "video-" + nextParticipant;
+            nextParticipant++;
+            present.add(identity);
+            trackIds.put(identity, trackId);
+            trackEnabled.put(trackId, true);
+            session.join(identity);
+            session.addVideoTrack(identity, trackId);
+        } else {
+            String identity = present.remove(random.nextInt(present.size()));
+            trackEnabled.remove(trackIds.remove(identity));
+            session.leave(identity);
+        }
+    }
+
+    private void toggle(FakeRoomSession session) {
+        if (present.isEmpty()) {
+            return;
+        }
+        String identity = present.get(random.nextInt(present.size()));
+        String trackId = trackIds.get(identity);
+        boolean enabled = !trackEnabled.get(trackId);
+        trackEnabled.put(trackId, enabled);
+        session.setVideoTrackEnabled(identity, trackId, enabled);
+    }
+
+    /*
+     * Every track still in the room must carry exactly its own renderer when enabled and none
+     * when disabled.
+     */
+    private void verifyRenderers(FakeRoomSession session, JsEventRecorder js, List<String> mismatches) {
+        for (String identity : present) {
+            String trackId = trackIds.get(identity);
+            FakeRoomParticipant participant = session.getParticipant(identity);
+            FakeRoomVideoTrack videoTrack = participant != null ? participant.findVideoTrack(trackId) : null;
+            if (videoTrack == null) {
+                mismatches.add(trackId + " missing from the room");
+                continue;
+            }
+            VideoRenderer renderer = js.getRenderer(trackId);
+            List<VideoRenderer> renderers = videoTrack.getRenderers();
+            if (renderer == null) {
+                mismatches.add(trackId + " was never announced to JS");
+            } else if (trackEnabled.get(trackId)) {
+                if (renderers.size() != 1 || renderers.get(0) != renderer) {
+                    mismatches.add(trackId + " renders to " + renderers);
+                }
+            } else if (!renderers.isEmpty()) {
+                mismatches.add(trackId + " is disabled but renders to " + renderers);
+            }
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,27 @@
+package com.twiliorn.library;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class RoomChurnSimulatorTest {
+    @Test
+    public void churnKeepsRenderersConsistent() throws IOException {
+        RoomChurnSimulator.Result result =
+                new RoomChurnSimulator(RuntimeEnvironment.application, new RoomChurnSimulator.Config()).run();
+
+        assertEquals(result.mismatches.toString(), 0, result.mismatches.size());
+        assertTrue(result.events > 0);
+        assertTrue(result.callbacks > 0);
+        result.save(new BenchmarkResults("room-churn"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.twiliorn.library;
+
+import android.graphics.Rect;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.webrtc.RendererCommon;
+
+import java.io.IOException;
+
+import static org.junit.Assume.assumeTrue;
+
+/*
+ * The sizing done by RNVideoViewGroup.onLayout for each scaling type, over a spread of tile and
+ * video sizes.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class TileLayoutBenchmark {
+    private static final int[][] TILE_SIZES = {{360, 640}, {180, 320}, {1080, 1920}, {540, 540}};
+    private static final int[][] VIDEO_SIZES = {{640, 480}, {352, 288}, {176, 144}, {0, 0}};
+
+    @Before
+    public void setUp() {
+        assumeTrue(MicroBenchmark.ENABLED);
+    }
+
+    @Test
+    public void surfaceBounds() throws IOException {
+        BenchmarkResults results = new BenchmarkResults("tile-layout");
+        final Rect bounds = new Rect();
+        for (final RendererCommon.ScalingType scalingType : RendererCommon.ScalingType.values()) {
+            MicroBenchmark.record(results, scalingType.name(), MicroBenchmark.measure(100000, 1000000,
+                    new MicroBenchmark.Operation() {
+                        @Override
+                        public int run(int iteration) {
+                            int[] tile = TILE_SIZES[iteration % TILE_SIZES.length];
+                            int[] video = VIDEO_SIZES[(iteration / TILE_SIZES.length) % VIDEO_SIZES.length];
+                            RNVideoViewGroup.surfaceBounds(scalingType, video[0], video[1], tile[0], tile[1], bounds);
+                            return bounds.right;
+                        }
+                    }));
+        }
+        results.save();
+    }
+}
@@ -0,0 +1,45 @@
+package com.twiliorn.library;
+
+import java.util.Arrays;
+
+/*
+ * Durations of the callbacks run on the main looper, kept in a primitive array so recording a
+ * sample does not allocate once the array has grown.
+ */
+class UiThreadTimer {
+    private long[] samples = new long[1024];
+    private int count;
+    private long totalNanos;
+    private long maxNanos;
+
+    void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    long getTotalNanos() {
+        return totalNanos;
+    }
+
+    long getMaxNanos() {
+        return maxNanos;
+    }
+
+    long percentileNanos(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
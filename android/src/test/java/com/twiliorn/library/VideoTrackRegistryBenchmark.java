@@ -0,0 +1,64 @@
+package com.twiliorn.library;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assume.assumeTrue;
+
+public class VideoTrackRegistryBenchmark {
+    private static final int[] TRACK_COUNTS = {10, 100, 1000};
+
+    @Before
+    public void setUp() {
+        assumeTrue(MicroBenchmark.ENABLED);
+    }
+
+    @Test
+    public void lookupAndRemoval() throws IOException {
+        BenchmarkResults results = new BenchmarkResults("video-track-registry");
+        for (int count : TRACK_COUNTS) {
+            final VideoTrackRegistry registry = new VideoTrackRegistry();
+            final FakeRoomVideoTrack[] tracks = new FakeRoomVideoTrack[count];
+            for (int i = 0; i < count; i++) {
+                tracks[i] = new FakeRoomVideoTrack("video-" + i);
+                registry.add(tracks[i]);
+            }
+
+            MicroBenchmark.record(results, "get." + count, MicroBenchmark.measure(100000, 1000000,
+                    new MicroBenchmark.Operation() {
+                        @Override
+                        public int run(int iteration) {
+                            return registry.get(tracks[iteration % tracks.length].getTrackId()) != null ? 1 : 0;
+                        }
+                    }));
+
+            // Remove a track and add it back so the registry keeps its size.
+            MicroBenchmark.record(results, "removeAndAdd." + count, MicroBenchmark.measure(100000, 1000000,
+                    new MicroBenchmark.Operation() {
+                        @Override
+                        public int run(int iteration) {
+                            RoomVideoTrack removed = registry.remove(tracks[iteration % tracks.length].getTrackId());
+                            registry.add(removed);
+                            return 1;
+                        }
+                    }));
+
+            MicroBenchmark.record(results, "iterate." + count, MicroBenchmark.measure(1000, 10000,
+                    new MicroBenchmark.Operation() {
+                        @Override
+                        public int run(int iteration) {
+                            int enabled = 0;
+                            for (RoomVideoTrack videoTrack : registry.all()) {
+                                if (videoTrack.isEnabled()) {
+                                    enabled++;
+                                }
+                            }
+                            return enabled;
+                        }
+                    }));
+        }
+        results.save();
+    }
+}
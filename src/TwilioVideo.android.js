@@ -9,6 +9,7 @@
 
 import {
   requireNativeComponent,
+  NativeModules,
   View,
   Platform,
   UIManager,
@@ -21,9 +22,18 @@ const propTypes = {
   ...View.propTypes,
   /**
    * Callback that is called when camera source changes
+   *
+   * @param {{isBackCamera, latencyMs}}
    */
   onCameraSwitched: PropTypes.func,
 
+  /**
+   * Callback that is called when the camera fails while switching source
+   *
+   * @param {{error}}
+   */
+  onCameraSwitchFailed: PropTypes.func,
+
   /**
    * Callback that is called when video is toggled.
    */
@@ -71,18 +81,147 @@ const propTypes = {
   /**
    * Callback that is called when a participant exits a room.
    */
-  onRoomParticipantDidDisconnect: PropTypes.func
+  onRoomParticipantDidDisconnect: PropTypes.func,
+
+  /**
+   * Battery level (percent) at or below which the call drops to audio-only
+   * while unplugged. 0 disables the automatic switch.
+   */
+  audioOnlyBatteryThreshold: PropTypes.number,
+
+  /**
+   * Enables dropping to audio-only when the uplink is congested: outbound
+   * packet loss of 10% or more, a round trip of 1s or more, or video being
+   * sent below this bitrate (kbps) once the encoder has had 15s to ramp up.
+   * Video comes back once loss and round trip time settle and a hold-down of
+   * 30s has passed; the hold-down doubles, up to 5 minutes, each time the
+   * link drops the call again within 2 minutes of recovering. 0 disables the
+   * automatic switch.
+   */
+  audioOnlyBandwidthThreshold: PropTypes.number,
+
+  /**
+   * Called when audio-only mode is entered or left. reason is one of command,
+   * battery, bandwidth or disconnected.
+   *
+   * @param {{audioOnly, reason}}
+   */
+  onAudioOnlyChanged: PropTypes.func,
+
+  /**
+   * Maximum audio send bitrate in kbps. 0 means unlimited.
+   */
+  maxAudioBitrate: PropTypes.number,
+
+  /**
+   * Maximum video send bitrate in kbps. 0 means unlimited. Android cannot cap
+   * the encoder, so the budget picks the capture profile: 400 and up CIF at
+   * 15fps, 300 CIF at 10fps, 150 QCIF at 10fps, below that QCIF at 5fps.
+   */
+  maxVideoBitrate: PropTypes.number,
+
+  /**
+   * Called once the achieved send bitrate has been measured after the
+   * bitrate limits change or the room connects with limits set
+   *
+   * @param {{maxAudioBitrate, maxVideoBitrate, audioBitrate, videoBitrate, withinBudget}}
+   */
+  onBitrateLimitsApplied: PropTypes.func,
+
+  /**
+   * Called when a recording has been finalised, with its frame counters
+   *
+   * @param {{trackId, path, framesReceived, framesEncoded, framesDropped, framesScaled, averageEncodeLatencyMs, maxEncodeLatencyMs, error}}
+   */
+  onRecordingStopped: PropTypes.func,
+
+  /**
+   * Called when the device's thermal or battery state or the video bitrate
+   * limit moves the local capture profile or remote render rate to another
+   * stage (0 is unrestricted). Capture values are the camera format in use
+   *
+   * @param {{stage, maxStage, captureWidth, captureHeight, captureFps, renderFps, thermalStatus, batteryLevel, charging}}
+   */
+  onPerformanceProfileChanged: PropTypes.func,
+
+  /**
+   * Interval in ms at which onRenderStats is called. 0 disables it.
+   */
+  renderStatsInterval: PropTypes.number,
+
+  /**
+   * Called every renderStatsInterval ms with frame timing per remote track
+   *
+   * @param {{tracks}} keyed by trackId: {deliveredFps, renderedFps, framesDelivered, framesRendered, freezeCount, freezeTotalMs, maxIntervalMs, frozen, intervalBucketsMs, intervalCounts}
+   */
+  onRenderStats: PropTypes.func,
+
+  /**
+   * Remote track kept rendering in picture-in-picture. Defaults to the first
+   * remote track with a view.
+   */
+  pictureInPictureTrackId: PropTypes.string,
+
+  /**
+   * Called when picture-in-picture rendering starts or ends
+   *
+   * @param {{active, trackId}}
+   */
+  onPictureInPictureChanged: PropTypes.func,
+
+  /**
+   * Called when a participant enables a video track
+   *
+   * @param {{participant, track}}
+   */
+  onParticipantEnabledTrack: PropTypes.func,
+
+  /**
+   * Called when a participant disables a video track. Its view stops
+   * rendering until the track is enabled again.
+   *
+   * @param {{participant, track}}
+   */
+  onParticipantDisabledTrack: PropTypes.func,
+
+  /**
+   * Sends participant identities and track ids once and then refers to them
+   * by integer handle: participantsNames holds handles, participant events are
+   * {participant} and track events are {participant, track}, all handles.
+   * Resolve them with resolveHandle().
+   */
+  compactEvents: PropTypes.bool,
+
+  /**
+   * Called with newly assigned handles when compactEvents is set. values[i]
+   * is the string for handle first + i. Handles are reset on disconnect.
+   *
+   * @param {{first, values}}
+   */
+  onHandlesAssigned: PropTypes.func
 }
 
+const { TWVideoModule } = NativeModules
+
 const nativeEvents = {
   connectToRoom: 1,
   disconnect: 2,
   switchCamera: 3,
   toggleVideo: 4,
-  toggleSound: 5
+  toggleSound: 5,
+  setAudioOnly: 6,
+  setBitrateLimits: 7,
+  startRecording: 8,
+  stopRecording: 9,
+  setPictureInPicture: 10
 }
 
 class CustomTwilioVideoView extends Component {
+  constructor (props) {
+    super(props)
+    this.handles = []
+  }
+
   connect ({roomName, accessToken}) {
     this.runCommand(nativeEvents.connectToRoom, [roomName, accessToken])
   }
@@ -103,6 +242,78 @@ class CustomTwilioVideoView extends Component {
     this.runCommand(nativeEvents.toggleSound, [enabled])
   }
 
+  setAudioOnly (enabled) {
+    this.runCommand(nativeEvents.setAudioOnly, [enabled])
+  }
+
+  setBitrateLimits ({maxAudioBitrate = 0, maxVideoBitrate = 0}) {
+    this.runCommand(nativeEvents.setBitrateLimits, [maxAudioBitrate, maxVideoBitrate])
+  }
+
+  /**
+   * Records the local video track, or the remote track with the given id,
+   * to an MP4 file at path.
+   */
+  startRecording ({path, trackId = null}) {
+    this.runCommand(nativeEvents.startRecording, [path, trackId])
+  }
+
+  stopRecording (trackId = null) {
+    this.runCommand(nativeEvents.stopRecording, [trackId])
+  }
+
+  /**
+   * Switches picture-in-picture rendering on or off. Usually driven natively
+   * from the Activity instead, see the README.
+   */
+  setPictureInPicture (enabled) {
+    this.runCommand(nativeEvents.setPictureInPicture, [enabled])
+  }
+
+  /**
+   * Runs an ordered list of commands, e.g.
+   * [{command: 'toggleSound', args: [false]}, {command: 'switchCamera'}],
+   * in a single native pass. Resolves with {results, durationMs} where each
+   * result is {command, ok, error, durationMs}. A command that cannot be
+   * carried out, such as toggleVideo without a local video track or
+   * startRecording of an unknown track, reports ok: false with the reason.
+   */
+  runCommands (operations) {
+    return TWVideoModule.runCommands(findNodeHandle(this.refs.videoView), operations)
+  }
+
+  /**
+   * Resolves with the frame timing of each remote track, keyed by trackId.
+   * See onRenderStats.
+   */
+  getRenderStats () {
+    return TWVideoModule.getRenderStats()
+  }
+
+  /**
+   * Resolves with {ready, preloadMs, firstConnectMs, firstConnectPreloaded}.
+   * See TwilioVideo.preload.
+   */
+  getPreloadStats () {
+    return TWVideoModule.getPreloadStats()
+  }
+
+  /**
+   * Resolves with the hardware encoder/decoder support for each video codec
+   * and the preferred codec order derived from it.
+   */
+  getCodecCapabilities () {
+    return TWVideoModule.getCodecCapabilities()
+  }
+
+  /**
+   * Returns the identity or track id for a handle received with
+   * compactEvents set.
+   */
+  resolveHandle (handle) {
+    return this.handles[handle]
+  }
+
   runCommand (event, args) {
     switch (Platform.OS) {
       case 'android':
@@ -118,8 +329,9 @@ class CustomTwilioVideoView extends Component {
   }
 
   buildNativeEventWrappers () {
-    return [
+    const wrappedEvents = [
       'onCameraSwitched',
+      'onCameraSwitchFailed',
       'onVideoChanged',
       'onAudioChanged',
       'onRoomDidConnect',
@@ -128,7 +340,15 @@ class CustomTwilioVideoView extends Component {
       'onParticipantAddedVideoTrack',
       'onParticipantRemovedVideoTrack',
       'onRoomParticipantDidConnect',
-      'onRoomParticipantDidDisconnect'
+      'onRoomParticipantDidDisconnect',
+      'onAudioOnlyChanged',
+      'onBitrateLimitsApplied',
+      'onRecordingStopped',
+      'onPerformanceProfileChanged',
+      'onRenderStats',
+      'onPictureInPictureChanged',
+      'onParticipantEnabledTrack',
+      'onParticipantDisabledTrack'
     ].reduce((wrappedEvents, eventName) => {
       if (this.props[eventName]) {
         return {
@@ -138,6 +358,30 @@ class CustomTwilioVideoView extends Component {
       }
       return wrappedEvents
     }, {})
+    return {...wrappedEvents, ...this.buildHandleEventWrappers()}
+  }
+
+  buildHandleEventWrappers () {
+    if (!this.props.compactEvents) {
+      return {}
+    }
+    return {
+      onHandlesAssigned: (data) => {
+        const { first, values } = data.nativeEvent
+        for (let i = 0; i < values.length; i++) {
+          this.handles[first + i] = values[i]
+        }
+        if (this.props.onHandlesAssigned) {
+          this.props.onHandlesAssigned(data.nativeEvent)
+        }
+      },
+      onRoomDidDisconnect: (data) => {
+        if (this.props.onRoomDidDisconnect) {
+          this.props.onRoomDidDisconnect(data.nativeEvent)
+        }
+        this.handles = []
+      }
+    }
   }
 
   render () {
@@ -151,6 +395,19 @@ class CustomTwilioVideoView extends Component {
   }
 }
 
+/**
+ * Initialises the Video SDK in the background ahead of the first connect.
+ * Resolves with the time the preload took, in ms, once it is ready.
+ */
+CustomTwilioVideoView.preload = () => TWVideoModule.preload()
+
+/**
+ * Resolves with the flight recorder records from the last `minutes`, oldest
+ * first, including those from before the app was last killed. Each record is
+ * {time, type, a, b, c}; identities and track ids are String hash codes.
+ */
+CustomTwilioVideoView.getFlightRecord = (minutes) => TWVideoModule.getFlightRecord(minutes)
+
 CustomTwilioVideoView.propTypes = propTypes
 
 const NativeCustomTwilioVideoView = requireNativeComponent('RNCustomTwilioVideoView', CustomTwilioVideoView)
@@ -10,9 +10,15 @@ import {
   View
 } from 'react-native'
 import React from 'react'
+import PropTypes from 'prop-types'
 
 const propTypes = {
-  ...View.propTypes
+  ...View.propTypes,
+  /**
+   * How the video is scaled into the view: 'fill' (default) crops to cover
+   * the view, 'fit' letterboxes, 'balanced' is in between.
+   */
+  scalingType: PropTypes.oneOf(['fit', 'fill', 'balanced'])
 }
 
 class TwilioVideoPreview extends React.Component {
@@ -15,6 +15,11 @@ class TwilioRemotePreview extends React.Component {
       videoTrackId: PropTypes.string.isRequired
     }),
     trackId: PropTypes.string,
+    /**
+     * How the video is scaled into the view: 'fill' (default) crops to cover
+     * the view, 'fit' letterboxes, 'balanced' is in between.
+     */
+    scalingType: PropTypes.oneOf(['fit', 'fill', 'balanced']),
     renderToHardwareTextureAndroid: PropTypes.string,
     onLayout: PropTypes.string,
     accessibilityLiveRegion: PropTypes.string,